@@ -0,0 +1,24 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Получение настроек загрузки каталога книг из файла настроек
+ */
+@Data
+@ConfigurationProperties("application.import")
+public class ImportProperties {
+    /**
+     * Количество книг, сохраняемых одной транзакцией и одним пакетом JDBC
+     */
+    private int batchSize = 1000;
+    /**
+     * Максимальное количество отклоненных строк в отчете о загрузке
+     */
+    private int maxReportedRejects = 1000;
+    /**
+     * Через какое количество пакетов записывать прогресс загрузки в журнал
+     */
+    private int progressEveryBatches = 100;
+}
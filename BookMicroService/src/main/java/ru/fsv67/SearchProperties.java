@@ -0,0 +1,26 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Получение настроек поиска книг по названию из файла настроек
+ */
+@Data
+@ConfigurationProperties("application.search")
+public class SearchProperties {
+    /**
+     * Максимальное количество самых релевантных книг, доступных по одному запросу постранично:
+     * позиция страницы не может быть больше
+     */
+    private int maxResults = 2000;
+    /**
+     * Минимальная длина слова запроса для поиска по началу слова. Более короткие слова ищутся только
+     * полным совпадением, чтобы одна-две буквы не перебирали книги большей части словаря
+     */
+    private int minPrefixLength = 3;
+    /**
+     * Количество книг, читаемых из БД за один запрос при построении индекса
+     */
+    private int buildPageSize = 10000;
+}
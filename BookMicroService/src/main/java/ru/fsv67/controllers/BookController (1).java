@@ -8,13 +8,26 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import ru.fsv67.Book;
+import ru.fsv67.ContentHash;
+import ru.fsv67.CursorPage;
+import ru.fsv67.events.CatalogEventBatch;
+import ru.fsv67.models.BookImportReport;
+import ru.fsv67.models.BookSearchPage;
+import ru.fsv67.services.BookEventLog;
+import ru.fsv67.services.BookImportService;
+import ru.fsv67.services.BookSearchIndex;
 import ru.fsv67.services.BookService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -24,10 +37,53 @@ import java.util.NoSuchElementException;
 @Tag(name = "Книги", description = "Управление всеми книгами в системе")
 public class BookController {
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final BookEventLog eventLog;
+
+    @Operation(
+            summary = "Получение страницы списка книг",
+            description = "Постраничная загрузка книг по курсору в порядке возрастания идентификатора",
+            parameters = {
+                    @Parameter(name = "after", description = "Курсор: идентификатор последней книги предыдущей " +
+                            "страницы. Не указывается для первой страницы"),
+                    @Parameter(name = "size", description = "Размер страницы, не более максимального")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение страницы книг", content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))
+                    }),
+                    @ApiResponse(responseCode = "400", description = "Неверный размер страницы",
+                            content = {
+                                    @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                            }),
+                    @ApiResponse(responseCode = "404", description = "Список книг пуст. Книги отсутствуют в системе",
+                            content = {
+                                    @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                            })
+            }
+    )
+    @GetMapping()
+    public ResponseEntity<CursorPage<Book>> getBooksPage(@RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer size,
+                                                         @Parameter(hidden = true)
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final CursorPage<Book> page;
+        try {
+            page = bookService.getBooksPage(after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, page.getItems(), page.getNextCursor()))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(page);
+    }
 
     @Operation(
             summary = "Получение списка книг",
-            description = "Загрузка всех книг сохранённых в системе",
+            description = "Загрузка всех книг сохранённых в системе одним ответом. Требует явного unpaged=true",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Успешное получение списка книг", content = {
                             @Content(mediaType = "application/json", array = @ArraySchema(schema =
@@ -40,15 +96,44 @@ public class BookController {
                             })
             }
     )
-    @GetMapping()
-    public ResponseEntity<List<Book>> getBooksList() {
+    @GetMapping(params = "unpaged=true")
+    public ResponseEntity<List<Book>> getBooksList(
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         final List<Book> books;
         try {
             books = bookService.getBooksList();
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.OK).body(books);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, books, null))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(books);
+    }
+
+    @Operation(
+            summary = "Получение списка книг по идентификаторам",
+            description = "Пакетная загрузка книг по списку идентификаторов. Отсутствующие идентификаторы пропускаются",
+            parameters = {
+                    @Parameter(name = "ids", description = "Список идентификаторов книг через запятую")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение списка книг", content = {
+                            @Content(mediaType = "application/json", array = @ArraySchema(schema =
+                            @Schema(implementation = Book.class)
+                            ))
+                    })
+            }
+    )
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<Book>> getBooksByIds(@RequestParam List<Long> ids,
+                                                    @Parameter(hidden = true)
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        List<Book> books = bookService.getBooksByIds(ids);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, books, null))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(books);
     }
 
     @Operation(
@@ -69,14 +154,19 @@ public class BookController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable long id) {
+    public ResponseEntity<Book> getBookById(@PathVariable long id,
+                                            @Parameter(hidden = true)
+                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         final Book book;
         try {
             book = bookService.getBookById(id);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.OK).body(book);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, List.of(book), null))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(book);
     }
 
 
@@ -106,6 +196,98 @@ public class BookController {
     }
 
 
+    @Operation(
+            summary = "Загрузка каталога книг",
+            description = "Потоковая загрузка книг из CSV (одно название в строке) или NDJSON (один объект книги " +
+                    "в строке). Книги сохраняются пакетами, строки с пустым названием отклоняются",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Отчет о загрузке", content = {
+                            @Content(mediaType = "application/json", schema =
+                            @Schema(implementation = BookImportReport.class))
+                    }),
+                    @ApiResponse(responseCode = "400", description = "Тело запроса не прочитано",
+                            content = {
+                                    @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                            })
+            }
+    )
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportReport> importBooks(InputStream body,
+                                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) {
+        final BookImportReport report;
+        try {
+            report = bookImportService.importBooks(body, contentType);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(report);
+    }
+
+    @Operation(
+            summary = "Поиск книг по названию",
+            description = "Поиск книг, в названии которых для каждого слова запроса есть слово, начинающееся с него. " +
+                    "Слова короче application.search.min-prefix-length должны совпасть полностью. " +
+                    "Книги с полностью совпавшими словами и более короткими названиями идут первыми",
+            parameters = {
+                    @Parameter(name = "q", description = "Строка поиска"),
+                    @Parameter(name = "after", description = "Курсор: позиция следующей страницы из ответа, " +
+                            "меньше application.search.max-results. Не указывается для первой страницы"),
+                    @Parameter(name = "size", description = "Размер страницы, не более максимального")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешный поиск книг. Доступны первые " +
+                            "application.search.max-results самых релевантных книг",
+                            content = {
+                                    @Content(mediaType = "application/json",
+                                            schema = @Schema(implementation = BookSearchPage.class))
+                            }),
+                    @ApiResponse(responseCode = "400", description = "Пустая строка поиска, больше " +
+                            BookSearchIndex.MAX_TERMS + " слов, неверный курсор или размер страницы",
+                            content = {
+                                    @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                            }),
+                    @ApiResponse(responseCode = "503", description = "Индекс поиска еще строится",
+                            content = {
+                                    @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                            })
+            }
+    )
+    @GetMapping("/search")
+    public ResponseEntity<BookSearchPage> searchBooks(@RequestParam String q,
+                                                      @RequestParam(required = false) Long after,
+                                                      @RequestParam(required = false) Integer size) {
+        final BookSearchPage page;
+        try {
+            page = bookService.searchBooks(q, after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    @Operation(
+            summary = "Получение событий справочника книг",
+            description = "Чтение журнала создания и удаления книг после заданного номера события. " +
+                    "Используется сервисом выдачи для ведения локальной копии справочника",
+            parameters = {
+                    @Parameter(name = "after", description = "Номер последнего обработанного события, 0 - с начала"),
+                    @Parameter(name = "limit", description = "Максимальное количество событий в ответе")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение событий", content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = CatalogEventBatch.class))
+                    })
+            }
+    )
+    @GetMapping("/events")
+    public ResponseEntity<CatalogEventBatch<Book>> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                             @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.status(HttpStatus.OK).body(eventLog.read(after, limit));
+    }
+
     @Operation(
             summary = "Удаление книги",
             description = "Удаляет книгу из системы по идентификатору",
@@ -133,4 +315,15 @@ public class BookController {
         }
         return ResponseEntity.status(HttpStatus.OK).body(book);
     }
+
+    /**
+     * Метод вычисления ETag по содержимому и формату ответа
+     */
+    private static String eTag(String accept, Collection<Book> books, Long nextCursor) {
+        ContentHash hash = ContentHash.forRepresentation(accept);
+        for (Book book : books) {
+            hash.add(book.getId()).add(book.getTitle());
+        }
+        return hash.add(nextCursor).toETag();
+    }
 }
@@ -0,0 +1,43 @@
+package ru.fsv67.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс описывает отчет о загрузке каталога книг
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Отчет о загрузке каталога книг")
+public class BookImportReport {
+
+    @Schema(description = "Количество сохраненных книг")
+    private long accepted;
+
+    @Schema(description = "Количество отклоненных строк")
+    private long rejected;
+
+    @Schema(description = "Отклоненные строки. Список ограничен настройкой application.import.max-reported-rejects")
+    private List<RejectedLine> rejectedLines = new ArrayList<>();
+
+    @Schema(description = "Время загрузки в миллисекундах")
+    private long elapsedMillis;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Отклоненная строка")
+    public static class RejectedLine {
+
+        @Schema(description = "Номер строки, начиная с 1")
+        private long line;
+
+        @Schema(description = "Причина отклонения")
+        private String reason;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.fsv67.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.fsv67.Book;
+
+import java.util.List;
+
+/**
+ * Класс описывает страницу результатов поиска книг по названию
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Страница результатов поиска книг")
+public class BookSearchPage {
+
+    @Schema(description = "Книги страницы, отсортированные по релевантности")
+    private List<Book> items;
+
+    @Schema(description = "Курсор следующей страницы: позиция ее первой книги в результатах. " +
+            "Отсутствует на последней странице и на странице, достигшей application.search.max-results")
+    private Long nextCursor;
+}
@@ -1,13 +1,23 @@
 package ru.fsv67.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.fsv67.Book;
 
+import java.util.List;
+
 /**
  * Класс описывает взаимодействие с хранилищем книг
  */
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
-
+    /**
+     * Метод постраничной загрузки книг по курсору
+     *
+     * @param id    идентификатор последней книги предыдущей страницы
+     * @param limit максимальное количество книг
+     * @return книги с идентификатором больше заданного, отсортированные по идентификатору
+     */
+    List<Book> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 }
@@ -0,0 +1,19 @@
+package ru.fsv67.services;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.fsv67.Book;
+import ru.fsv67.events.CatalogEventProperties;
+import ru.fsv67.events.InMemoryCatalogEventLog;
+
+/**
+ * Журнал событий справочника книг, читаемый сервисом выдачи через GET /book/events
+ */
+@Component
+@EnableConfigurationProperties(CatalogEventProperties.class)
+public class BookEventLog extends InMemoryCatalogEventLog<Book> {
+
+    public BookEventLog(CatalogEventProperties properties) {
+        super(properties);
+    }
+}
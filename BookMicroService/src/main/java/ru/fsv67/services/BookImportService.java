@@ -0,0 +1,151 @@
+package ru.fsv67.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fsv67.Book;
+import ru.fsv67.ImportProperties;
+import ru.fsv67.events.CatalogEventPublisher;
+import ru.fsv67.models.BookImportReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс описывает потоковую загрузку каталога книг.
+ * <p>
+ * Тело запроса читается построчно, книги сохраняются пакетами по {@link ImportProperties#getBatchSize()},
+ * каждый пакет - отдельной транзакцией; после записи пакета контекст персистентности очищается,
+ * поэтому память не зависит от размера каталога, даже если запрос выполняется внутри открытой сессии
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(ImportProperties.class)
+public class BookImportService {
+    public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private final BookService bookService;
+    private final ImportProperties importProperties;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogEventPublisher<Book> eventPublisher;
+    private final BookSearchIndex searchIndex;
+
+    public BookImportService(BookService bookService, ImportProperties importProperties, EntityManager entityManager,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                             CatalogEventPublisher<Book> eventPublisher, BookSearchIndex searchIndex) {
+        this.bookService = bookService;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
+        this.importProperties = importProperties;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Метод загрузки каталога книг.
+     * CSV: одно название книги в строке, необязательный заголовок title, название может быть в кавычках.
+     * NDJSON: один объект книги в строке
+     *
+     * @param inputStream тело запроса
+     * @param contentType формат тела запроса
+     * @return отчет о загрузке
+     */
+    public BookImportReport importBooks(InputStream inputStream, MediaType contentType) throws IOException {
+        boolean csv = TEXT_CSV.isCompatibleWith(contentType);
+        int batchSize = Math.max(1, importProperties.getBatchSize());
+        long started = System.nanoTime();
+        BookImportReport report = new BookImportReport();
+        List<Book> batch = new ArrayList<>(batchSize);
+        long batches = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (csv && lineNumber == 1 && line.trim().equalsIgnoreCase("title"))) {
+                continue;
+            }
+            try {
+                Book book = csv ? new Book(parseCsvTitle(line)) : parseJsonBook(line);
+                bookService.checkBook(book);
+                batch.add(book);
+            } catch (RuntimeException e) {
+                reject(report, lineNumber, e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                saveBatch(batch, report);
+                if (++batches % Math.max(1, importProperties.getProgressEveryBatches()) == 0) {
+                    log.info("Загрузка книг: обработано строк {}, сохранено {}, отклонено {}",
+                            lineNumber, report.getAccepted(), report.getRejected());
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            saveBatch(batch, report);
+        }
+        report.setElapsedMillis((System.nanoTime() - started) / 1_000_000);
+        log.info("Загрузка книг завершена: сохранено {}, отклонено {}, время {} мс",
+                report.getAccepted(), report.getRejected(), report.getElapsedMillis());
+        return report;
+    }
+
+    private void saveBatch(List<Book> batch, BookImportReport report) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batch.size());
+            batch.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        batch.forEach(book -> {
+            eventPublisher.created(book.getId(), book);
+            searchIndex.add(book);
+        });
+        report.setAccepted(report.getAccepted() + batch.size());
+        batch.clear();
+    }
+
+    private void reject(BookImportReport report, long lineNumber, String reason) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getRejectedLines().size() < importProperties.getMaxReportedRejects()) {
+            report.getRejectedLines().add(new BookImportReport.RejectedLine(lineNumber, reason));
+        }
+    }
+
+    private Book parseJsonBook(String line) {
+        try {
+            Book book = objectMapper.readValue(line, Book.class);
+            book.setId(null);
+            return book;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Строка не является объектом книги: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Название в кавычках может содержать запятые, кавычки внутри названия удваиваются
+     */
+    private static String parseCsvTitle(String line) {
+        String value = line.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,356 @@
+package ru.fsv67.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.fsv67.Book;
+import ru.fsv67.SearchProperties;
+import ru.fsv67.models.BookSearchPage;
+import ru.fsv67.repositories.BookRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+
+/**
+ * Класс описывает индекс поиска книг по словам названия в памяти.
+ * <p>
+ * Слова названий хранятся в упорядоченном словаре, поэтому книги, в названии которых есть слово,
+ * начинающееся с искомого, находятся поиском диапазона ключей без просмотра таблицы.
+ * Книги каждого слова хранятся в порядке ранжирования (длина названия, идентификатор),
+ * поэтому поиск читает списки с начала и останавливается, как только набрана запрошенная страница.
+ * Индекс строится в фоне после запуска сервиса и обновляется при добавлении, загрузке и удалении книг.
+ * Книги, удаленные во время построения, в индекс не попадают
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(SearchProperties.class)
+public class BookSearchIndex {
+    /**
+     * Максимальное количество слов запроса: книги ищутся по всем сочетаниям полностью совпавших слов
+     */
+    public static final int MAX_TERMS = 8;
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Entry> RANK = Comparator.comparingInt(Entry::length)
+            .thenComparingLong(Entry::id);
+
+    private final BookRepository bookRepository;
+    private final SearchProperties properties;
+    private final ConcurrentSkipListMap<String, Postings> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entry> books = new ConcurrentHashMap<>();
+    private final Set<Long> deletedWhileBuilding = new HashSet<>();
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookRepository bookRepository, SearchProperties properties) {
+        this.bookRepository = bookRepository;
+        this.properties = properties;
+    }
+
+    /**
+     * Метод запуска построения индекса в фоне, чтобы запуск сервиса не ждал чтения всего каталога
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void buildInBackground() {
+        Thread.ofVirtual().name("book-search-index").start(this::build);
+    }
+
+    /**
+     * Метод построения индекса по всем книгам каталога. Поиск доступен после завершения построения
+     */
+    public void build() {
+        long started = System.nanoTime();
+        long after = 0;
+        long loaded = 0;
+        List<Book> page;
+        do {
+            page = bookRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(properties.getBuildPageSize()));
+            for (Book book : page) {
+                addIfNotDeleted(book);
+            }
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == properties.getBuildPageSize());
+        synchronized (this) {
+            ready = true;
+            deletedWhileBuilding.clear();
+        }
+        log.info("Индекс поиска книг построен: {} книг, {} слов, время {} мс",
+                loaded, postings.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Метод добавления книги в индекс
+     *
+     * @param book сохраненная книга
+     */
+    public synchronized void add(Book book) {
+        Entry entry = new Entry(book, words(book.getTitle()), book.getTitle().length(), book.getId());
+        Entry previous = books.put(book.getId(), entry);
+        if (previous != null) {
+            unlink(previous);
+        }
+        for (String word : entry.words()) {
+            postings.computeIfAbsent(word, key -> new Postings()).add(entry);
+        }
+    }
+
+    /**
+     * Метод удаления книги из индекса
+     *
+     * @param id идентификатор удаленной книги
+     */
+    public synchronized void remove(long id) {
+        if (!ready) {
+            deletedWhileBuilding.add(id);
+        }
+        Entry entry = books.remove(id);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    private synchronized void addIfNotDeleted(Book book) {
+        if (!deletedWhileBuilding.contains(book.getId())) {
+            add(book);
+        }
+    }
+
+    private void unlink(Entry entry) {
+        for (String word : entry.words()) {
+            Postings list = postings.get(word);
+            if (list != null && list.remove(entry) && list.size() == 0) {
+                postings.remove(word, list);
+            }
+        }
+    }
+
+    /**
+     * Метод поиска книг по началу слов названия.
+     * Книга подходит, если для каждого слова запроса в названии есть слово, совпадающее с ним или начинающееся
+     * с него; слова запроса короче {@link SearchProperties#getMinPrefixLength()} должны совпасть полностью.
+     * Книги ранжируются по количеству полностью совпавших слов, затем по длине названия.
+     * <p>
+     * Книги выбираются по уровням ранжирования от всех полностью совпавших слов до ни одного. На каждом уровне
+     * для каждого сочетания полностью совпавших слов читается самый короткий из списков книг, которым
+     * должны принадлежать подходящие книги, и чтение останавливается, как только набрано нужное количество.
+     * Поэтому объем работы определяется позицией последней книги страницы, а не количеством подходящих книг
+     *
+     * @param query    строка поиска
+     * @param position позиция первой книги страницы в результатах, отсутствует для первой страницы
+     * @param size     размер страницы
+     * @return страница найденных книг, курсор - позиция следующей страницы
+     */
+    public BookSearchPage search(String query, Long position, int size) {
+        if (!ready) {
+            throw new IllegalStateException("Индекс поиска книг строится, повторите запрос позже");
+        }
+        String[] terms = words(query);
+        if (terms.length == 0) {
+            throw new IllegalArgumentException("Строка поиска не содержит слов");
+        }
+        if (terms.length > MAX_TERMS) {
+            throw new IllegalArgumentException("Строка поиска содержит больше " + MAX_TERMS + " слов");
+        }
+        int maxResults = Math.max(1, properties.getMaxResults());
+        if (position != null && (position < 0 || position >= maxResults)) {
+            throw new IllegalArgumentException("Позиция страницы должна быть от 0 до " + (maxResults - 1));
+        }
+        int from = position == null ? 0 : position.intValue();
+        int limit = (int) Math.min((long) from + size, maxResults);
+
+        Term[] lists = new Term[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            lists[i] = term(terms[i]);
+        }
+        List<Entry> ranked = new ArrayList<>();
+        for (int exact = terms.length; exact >= 0 && ranked.size() <= limit; exact--) {
+            ranked.addAll(level(terms, lists, exact, limit + 1 - ranked.size()));
+        }
+
+        List<Book> items = ranked.subList(Math.min(from, ranked.size()), Math.min(limit, ranked.size())).stream()
+                .map(Entry::book)
+                .toList();
+        Long next = ranked.size() > limit && limit < maxResults ? (long) limit : null;
+        return new BookSearchPage(items, next);
+    }
+
+    /**
+     * Списки книг одного слова запроса: книги с полностью совпавшим словом и книги, в названии которых
+     * есть только более длинные слова, начинающиеся с него
+     */
+    private Term term(String term) {
+        Postings exact = postings.get(term);
+        List<Postings> prefixed = new ArrayList<>();
+        long prefixedSize = 0;
+        if (term.length() >= properties.getMinPrefixLength()) {
+            for (Postings list : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                prefixed.add(list);
+                prefixedSize += list.size();
+            }
+        }
+        return new Term(exact == null ? List.of() : List.of(exact), exact == null ? 0 : exact.size(),
+                prefixed, prefixedSize);
+    }
+
+    /**
+     * Первые по ранжированию книги, у которых полностью совпадают ровно {@code exact} слов запроса
+     */
+    private List<Entry> level(String[] terms, Term[] lists, int exact, int count) {
+        List<Entry> level = new ArrayList<>();
+        for (int mask = 0; mask < 1 << terms.length; mask++) {
+            if (Integer.bitCount(mask) != exact) {
+                continue;
+            }
+            List<Postings> source = null;
+            long sourceSize = Long.MAX_VALUE;
+            for (int i = 0; i < terms.length; i++) {
+                boolean full = (mask & 1 << i) != 0;
+                long listSize = full ? lists[i].exactSize() : lists[i].prefixedSize();
+                if (listSize < sourceSize) {
+                    source = full ? lists[i].exact() : lists[i].prefixed();
+                    sourceSize = listSize;
+                }
+            }
+            if (sourceSize == 0) {
+                continue;
+            }
+            int found = 0;
+            Iterator<Entry> candidates = merge(source);
+            while (found < count && candidates.hasNext()) {
+                Entry candidate = candidates.next();
+                if (matches(candidate.words(), terms, mask)) {
+                    level.add(candidate);
+                    found++;
+                }
+            }
+        }
+        level.sort(RANK);
+        return level.size() > count ? level.subList(0, count) : level;
+    }
+
+    /**
+     * @return слова запроса из {@code mask} совпадают со словами названия полностью, остальные являются
+     * только началом более длинных слов названия
+     */
+    private static boolean matches(String[] words, String[] terms, int mask) {
+        for (int i = 0; i < terms.length; i++) {
+            boolean equal = false;
+            boolean prefix = false;
+            for (String word : words) {
+                if (word.equals(terms[i])) {
+                    equal = true;
+                    break;
+                }
+                prefix |= word.startsWith(terms[i]);
+            }
+            if ((mask & 1 << i) != 0 ? !equal : equal || !prefix) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Слияние списков книг в порядке ранжирования без повторов: книга, у которой несколько слов начинаются
+     * со слова запроса, есть в нескольких списках
+     */
+    private static Iterator<Entry> merge(List<Postings> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0).iterator();
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::entry, RANK));
+        for (Postings list : lists) {
+            Iterator<Entry> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+        return new Iterator<>() {
+            private Entry last;
+
+            @Override
+            public boolean hasNext() {
+                while (!heads.isEmpty() && last != null && RANK.compare(heads.peek().entry(), last) <= 0) {
+                    advance();
+                }
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Entry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = advance();
+                return last;
+            }
+
+            private Entry advance() {
+                Head head = heads.poll();
+                if (head.rest().hasNext()) {
+                    heads.add(new Head(head.rest().next(), head.rest()));
+                }
+                return head.entry();
+            }
+        };
+    }
+
+    private static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Книги одного слова в порядке ранжирования. Изменяется только под блокировкой индекса
+     */
+    private static final class Postings {
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(RANK);
+        private volatile int size;
+
+        private void add(Entry entry) {
+            if (entries.add(entry)) {
+                size++;
+            }
+        }
+
+        private boolean remove(Entry entry) {
+            if (entries.remove(entry)) {
+                size--;
+                return true;
+            }
+            return false;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private Iterator<Entry> iterator() {
+            return entries.iterator();
+        }
+    }
+
+    /**
+     * Книга индекса. Длина названия и идентификатор сохраняются при добавлении и задают порядок в списках
+     */
+    private record Entry(Book book, String[] words, int length, long id) {
+    }
+
+    private record Term(List<Postings> exact, long exactSize, List<Postings> prefixed, long prefixedSize) {
+    }
+
+    private record Head(Entry entry, Iterator<Entry> rest) {
+    }
+}
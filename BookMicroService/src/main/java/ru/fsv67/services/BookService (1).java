@@ -1,13 +1,20 @@
 package ru.fsv67.services;
 
 import com.github.javafaker.Faker;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import ru.fsv67.Book;
+import ru.fsv67.CursorPage;
+import ru.fsv67.PageProperties;
+import ru.fsv67.events.CatalogEventPublisher;
+import ru.fsv67.models.BookSearchPage;
 import ru.fsv67.repositories.BookRepository;
+import ru.fsv67.seed.DataSeeder;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -17,20 +24,31 @@ import java.util.Objects;
  */
 @Service
 @RequiredArgsConstructor
-public class BookService {
+@EnableConfigurationProperties(PageProperties.class)
+public class BookService implements DataSeeder {
     private final BookRepository bookRepository;
+    private final PageProperties pageProperties;
+    private final CatalogEventPublisher<Book> eventPublisher;
+    private final BookSearchIndex searchIndex;
 
     /**
-     * Первоначальные тестовые данные
+     * Первоначальные тестовые данные. Момент добавления задается настройкой application.seed.mode.
+     * Если в хранилище уже есть книги, данные не добавляются. Проверка читает одну строку по первичному ключу
      */
-    @PostConstruct
-    void generateData() {
+    @Override
+    public void seed() {
+        if (!bookRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(1)).isEmpty()) {
+            return;
+        }
         Faker faker = new Faker();
         List<Book> bookList = new ArrayList<>();
         for (int i = 0; i < 20; i++) {
             bookList.add(new Book(faker.book().title()));
         }
-        bookRepository.saveAll(bookList);
+        bookRepository.saveAll(bookList).forEach(book -> {
+            eventPublisher.created(book.getId(), book);
+            searchIndex.add(book);
+        });
     }
 
     /**
@@ -60,20 +78,74 @@ public class BookService {
     }
 
     /**
-     * Метод обрабатывает данные введенные пользователем для записи
+     * Метод обрабатывает постраничное получение списка книг
+     *
+     * @param after идентификатор последней книги предыдущей страницы, отсутствует для первой страницы
+     * @param size  размер страницы, при отсутствии используется размер по умолчанию
+     * @return если первая страница не пуста, то метод возвращает страницу книг, иначе исключение
+     */
+    public CursorPage<Book> getBooksPage(Long after, Integer size) {
+        int pageSize = pageProperties.resolveSize(size);
+        List<Book> books = bookRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0 : after, Limit.of(pageSize + 1)
+        );
+        if (after == null && books.isEmpty()) {
+            throw new NoSuchElementException("Список книг в библиотеке пуст");
+        }
+        return CursorPage.of(books, pageSize, Book::getId);
+    }
+
+    /**
+     * Метод обрабатывает пакетное получение книг по списку идентификаторов
+     *
+     * @param ids идентификаторы книг
+     * @return список найденных книг, отсутствующие идентификаторы пропускаются
+     */
+    public List<Book> getBooksByIds(Collection<Long> ids) {
+        return bookRepository.findAllById(ids);
+    }
+
+    /**
+     * Метод обрабатывает поиск книг по словам названия в индексе {@link BookSearchIndex}
+     *
+     * @param query строка поиска
+     * @param after позиция первой книги страницы в результатах, отсутствует для первой страницы
+     * @param size  размер страницы, при отсутствии используется размер по умолчанию
+     * @return страница найденных книг, отсортированных по релевантности
+     */
+    public BookSearchPage searchBooks(String query, Long after, Integer size) {
+        return searchIndex.search(query, after, pageProperties.resolveSize(size));
+    }
+
+    /**
+     * Метод обрабатывает данные введенные пользователем для записи.
+     * О сохранении книги публикуется событие, книга добавляется в индекс поиска
      *
      * @param book данные о книге, введенные пользователем
      * @return информацию о книге подлежащие записи
      */
     public Book addNewBook(Book book) {
-        if (book.getTitle().isEmpty()) {
+        checkBook(book);
+        Book saved = bookRepository.save(book);
+        eventPublisher.created(saved.getId(), saved);
+        searchIndex.add(saved);
+        return saved;
+    }
+
+    /**
+     * Метод проверяет данные о книге перед записью
+     *
+     * @param book данные о книге, введенные пользователем
+     */
+    public void checkBook(Book book) {
+        if (book.getTitle() == null || book.getTitle().isEmpty()) {
             throw new RuntimeException("Название книги не задано");
         }
-        return bookRepository.save(book);
     }
 
     /**
-     * Метод проверяет информацию перед удалением книги
+     * Метод проверяет информацию перед удалением книги.
+     * Об удалении книги публикуется событие, книга удаляется из индекса поиска
      *
      * @param id идентификатор книги подлежащей удалению
      * @return описание удаленной книги
@@ -81,6 +153,8 @@ public class BookService {
     public Book deleteBookById(long id) {
         Book book = getBookById(id);
         bookRepository.deleteById(id);
+        eventPublisher.deleted(id);
+        searchIndex.remove(id);
         if (Objects.isNull(book)) {
             throw new NoSuchElementException("Книга с ID = " + id + " не найдена");
         }
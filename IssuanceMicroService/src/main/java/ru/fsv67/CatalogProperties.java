@@ -0,0 +1,28 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки локальной копии справочников книг и читателей
+ */
+@Data
+@ConfigurationProperties("application.catalog")
+public class CatalogProperties {
+    /**
+     * Ведение локальной копии. При выключенной копии книги и читатели запрашиваются у удаленных сервисов
+     */
+    private boolean enabled = true;
+    /**
+     * Период опроса журналов событий, мс
+     */
+    private long pollInterval = 1000;
+    /**
+     * Количество событий, запрашиваемых за одно обращение
+     */
+    private int batchSize = 1000;
+    /**
+     * Размер страницы при полной загрузке справочника
+     */
+    private int snapshotPageSize = 500;
+}
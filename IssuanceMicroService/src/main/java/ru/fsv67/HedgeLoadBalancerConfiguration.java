@@ -0,0 +1,101 @@
+package ru.fsv67;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.*;
+import org.springframework.cloud.loadbalancer.core.DelegatingServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import reactor.core.publisher.Flux;
+import ru.fsv67.services.DependencyGuard;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Настройка балансировщика для повторных запросов {@link DependencyGuard}.
+ * Экземпляр, выбранный для основного запроса, записывается в атрибут запроса
+ * {@link DependencyGuard#SELECTED_ATTRIBUTE}, а повторный запрос с атрибутом
+ * {@link DependencyGuard#EXCLUDED_ATTRIBUTE} направляется любому другому экземпляру.
+ * Если другого экземпляра нет, повторный запрос отправляется тому же.
+ * Класс подключается через {@code @LoadBalancerClients} и не является компонентом:
+ * бины создаются в контексте балансировщика каждого сервиса
+ */
+public class HedgeLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier discoveryClientServiceInstanceListSupplier(
+            ConfigurableApplicationContext context) {
+        return new ExcludingServiceInstanceListSupplier(
+                ServiceInstanceListSupplier.builder().withDiscoveryClient().withCaching().build(context));
+    }
+
+    @Bean
+    public SelectedInstanceLifecycle selectedInstanceLifecycle() {
+        return new SelectedInstanceLifecycle();
+    }
+
+    private static String address(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    /**
+     * Список экземпляров без экземпляра, исключенного атрибутом запроса
+     */
+    static class ExcludingServiceInstanceListSupplier extends DelegatingServiceInstanceListSupplier {
+
+        ExcludingServiceInstanceListSupplier(ServiceInstanceListSupplier delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get() {
+            return delegate.get();
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get(Request request) {
+            if (!(request.getContext() instanceof RequestDataContext context)
+                    || !(context.getClientRequest().getAttributes()
+                    .get(DependencyGuard.EXCLUDED_ATTRIBUTE) instanceof String excluded)) {
+                return delegate.get(request);
+            }
+            return delegate.get(request).map(instances -> {
+                List<ServiceInstance> others = instances.stream()
+                        .filter(instance -> !address(instance).equals(excluded))
+                        .toList();
+                return others.isEmpty() ? instances : others;
+            });
+        }
+    }
+
+    /**
+     * Запись выбранного экземпляра в атрибут запроса
+     */
+    static class SelectedInstanceLifecycle
+            implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+        @Override
+        public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+            return RequestDataContext.class.isAssignableFrom(requestContextClass)
+                    && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+        }
+
+        @Override
+        public void onStart(Request<RequestDataContext> request) {
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+            if (lbResponse.hasServer() && request.getContext().getClientRequest().getAttributes()
+                    .get(DependencyGuard.SELECTED_ATTRIBUTE) instanceof AtomicReference<?> selected) {
+                ((AtomicReference<String>) selected).set(address(lbResponse.getServer()));
+            }
+        }
+
+        @Override
+        public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки локального кэша книг и читателей
+ */
+@Data
+@ConfigurationProperties("application.cache")
+public class NearCacheProperties {
+    /**
+     * Включение кэша. При выключенном кэше каждый запрос уходит в удаленный сервис
+     */
+    private boolean enabled = true;
+    /**
+     * Время, в течение которого запись считается свежей
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+    /**
+     * Время после истечения ttl, в течение которого устаревшая запись отдается,
+     * пока в фоне выполняется ее обновление
+     */
+    private Duration staleTtl = Duration.ofMinutes(5);
+    /**
+     * Максимальное количество записей в каждом кэше
+     */
+    private long maxSize = 10_000;
+}
@@ -0,0 +1,30 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки отслеживания просроченных выдач
+ */
+@Data
+@ConfigurationProperties("application.overdue")
+public class OverdueProperties {
+    /**
+     * Отслеживание просроченных выдач
+     */
+    private boolean enabled = true;
+    /**
+     * Срок, после которого открытая выдача считается просроченной
+     */
+    private Duration loanPeriod = Duration.ofDays(14);
+    /**
+     * Период проверки, мс
+     */
+    private long tickInterval = 60000;
+    /**
+     * Количество выдач, проверяемых за один запрос к БД
+     */
+    private int batchSize = 1000;
+}
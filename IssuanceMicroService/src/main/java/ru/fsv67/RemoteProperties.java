@@ -0,0 +1,76 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки обращения к сервисам книг и читателей
+ */
+@Data
+@ConfigurationProperties("application.remote")
+public class RemoteProperties {
+    /**
+     * Максимальное количество идентификаторов в одном пакетном запросе
+     */
+    private int batchSize = 100;
+    /**
+     * Максимальное количество одновременных запросов при обогащении списка выдач
+     */
+    private int concurrency = 8;
+    /**
+     * Способ обогащения списка выдач описанием книг и читателей
+     */
+    private Enrichment enrichment = Enrichment.BATCH;
+    /**
+     * Ограничения обращений к сервису книг при проверке выдачи
+     */
+    private Dependency book = new Dependency();
+    /**
+     * Ограничения обращений к сервису читателей при проверке выдачи
+     */
+    private Dependency reader = new Dependency();
+
+    public enum Enrichment {
+        /**
+         * Пакетная загрузка по уникальным идентификаторам и соединение в памяти
+         */
+        BATCH,
+        /**
+         * Одновременная загрузка книги и читателя для каждой выдачи
+         */
+        CONCURRENT
+    }
+
+    /**
+     * Ограничения обращений к одному удаленному сервису
+     */
+    @Data
+    public static class Dependency {
+        /**
+         * Максимальное время проверки, включая повторный запрос
+         */
+        private Duration deadline = Duration.ofSeconds(2);
+        /**
+         * Максимальное количество одновременных обращений, сверх него запрос отклоняется сразу
+         */
+        private int maxConcurrentCalls = 64;
+        /**
+         * Отправлять повторный запрос другому экземпляру, если первый не ответил вовремя
+         */
+        private boolean hedgeEnabled = false;
+        /**
+         * Перцентиль времени ответа, после которого отправляется повторный запрос
+         */
+        private double hedgePercentile = 0.95;
+        /**
+         * Минимальная задержка повторного запроса
+         */
+        private Duration hedgeMinDelay = Duration.ofMillis(10);
+        /**
+         * Доля повторных запросов от общего количества обращений
+         */
+        private double hedgeBudget = 0.1;
+    }
+}
@@ -0,0 +1,86 @@
+package ru.fsv67.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.fsv67.models.NearCacheStats;
+import ru.fsv67.services.LibraryApiClient;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/issuance/cache")
+@Tag(name = "Кэш книг и читателей", description = "Статистика и сброс локального кэша сервиса выдачи")
+public class CacheController {
+    private final LibraryApiClient libraryApiClient;
+
+    @Operation(
+            summary = "Статистика кэша",
+            description = "Количество записей, попаданий и промахов кэшей книг и читателей",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение статистики", content = {
+                            @Content(mediaType = "application/json", array = @ArraySchema(schema =
+                            @Schema(implementation = NearCacheStats.class)
+                            ))
+                    })
+            }
+    )
+    @GetMapping
+    public ResponseEntity<List<NearCacheStats>> getCacheStats() {
+        return ResponseEntity.status(HttpStatus.OK).body(libraryApiClient.cacheStats());
+    }
+
+    @Operation(
+            summary = "Сброс кэша книги",
+            description = "Удаление книги из кэша по идентификатору",
+            parameters = {
+                    @Parameter(name = "id", description = "Идентификатор книги")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Книга удалена из кэша")
+            }
+    )
+    @DeleteMapping("/book/{id}")
+    public ResponseEntity<Void> invalidateBook(@PathVariable long id) {
+        libraryApiClient.invalidateBook(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @Operation(
+            summary = "Сброс кэша читателя",
+            description = "Удаление читателя из кэша по идентификатору",
+            parameters = {
+                    @Parameter(name = "id", description = "Идентификатор читателя")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Читатель удален из кэша")
+            }
+    )
+    @DeleteMapping("/reader/{id}")
+    public ResponseEntity<Void> invalidateReader(@PathVariable long id) {
+        libraryApiClient.invalidateReader(id);
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    @Operation(
+            summary = "Сброс кэша",
+            description = "Очистка кэшей книг и читателей",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Кэши очищены")
+            }
+    )
+    @DeleteMapping
+    public ResponseEntity<Void> invalidateAll() {
+        libraryApiClient.invalidateAll();
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+}
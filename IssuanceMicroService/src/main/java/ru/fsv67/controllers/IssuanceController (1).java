@@ -7,15 +7,27 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.fsv67.CursorPage;
 import ru.fsv67.Issuance;
+import ru.fsv67.models.IssuanceBatchResult;
+import ru.fsv67.models.IssuanceReturnResult;
 import ru.fsv67.models.IssuanceTransform;
+import ru.fsv67.models.OverdueLoan;
 import ru.fsv67.services.IssuanceService;
+import ru.fsv67.services.OverdueTracker;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -25,10 +37,76 @@ import java.util.NoSuchElementException;
 @Tag(name = "Выдача книг", description = "Управление всеми выдачами в системе")
 public class IssuanceController {
     private final IssuanceService issuanceService;
+    private final OverdueTracker overdueTracker;
+    private final ObjectMapper objectMapper;
+
+    @Operation(
+            summary = "Получение страницы списка выдач",
+            description = "Постраничная загрузка выдач книг читателям по курсору в порядке возрастания идентификатора",
+            parameters = {
+                    @Parameter(name = "after", description = "Курсор: идентификатор последней выдачи предыдущей " +
+                            "страницы. Не указывается для первой страницы"),
+                    @Parameter(name = "size", description = "Размер страницы, не более максимального")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение страницы выдач", content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))
+                    }),
+                    @ApiResponse(responseCode = "400", description = "Неверный размер страницы", content = {
+                            @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                    }),
+                    @ApiResponse(responseCode = "404", description = "Список выдачи пуст. Книги не выдавались", content = {
+                            @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                    })
+            }
+    )
+    @GetMapping
+    public ResponseEntity<CursorPage<IssuanceTransform>> issuancePage(@RequestParam(required = false) Long after,
+                                                                      @RequestParam(required = false) Integer size) {
+        final CursorPage<IssuanceTransform> page;
+        try {
+            page = issuanceService.getIssuancePage(after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+
+    @Operation(
+            summary = "Получение страницы просроченных выдач",
+            description = "Постраничная загрузка открытых выдач, срок возврата которых истек, " +
+                    "по курсору в порядке возрастания идентификатора выдачи",
+            parameters = {
+                    @Parameter(name = "after", description = "Курсор: идентификатор последней выдачи предыдущей " +
+                            "страницы. Не указывается для первой страницы"),
+                    @Parameter(name = "size", description = "Размер страницы, не более максимального")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение страницы выдач", content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))
+                    }),
+                    @ApiResponse(responseCode = "400", description = "Неверный размер страницы", content = {
+                            @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                    })
+            }
+    )
+    @GetMapping("/overdue")
+    public ResponseEntity<CursorPage<OverdueLoan>> overduePage(@RequestParam(required = false) Long after,
+                                                               @RequestParam(required = false) Integer size) {
+        final CursorPage<OverdueLoan> page;
+        try {
+            page = overdueTracker.getOverduePage(after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
 
     @Operation(
             summary = "Получение списка выдач",
-            description = "Загрузить список всех выдач книг читателям",
+            description = "Загрузить список всех выдач книг читателям одним ответом. Требует явного unpaged=true",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Успешное получение списка выдач", content = {
                             @Content(mediaType = "application/json", array = @ArraySchema(schema =
@@ -40,7 +118,7 @@ public class IssuanceController {
                     })
             }
     )
-    @GetMapping
+    @GetMapping(params = "unpaged=true")
     public ResponseEntity<List<IssuanceTransform>> issuanceList() {
         final List<IssuanceTransform> issuanceList;
         try {
@@ -51,6 +129,35 @@ public class IssuanceController {
         return ResponseEntity.status(HttpStatus.OK).body(issuanceList);
     }
 
+    @Operation(
+            summary = "Выгрузка всех выдач",
+            description = "Потоковая выгрузка всех выдач с полным описанием книг и читателей в формате NDJSON: " +
+                    "одна выдача на строку. Строки отправляются порциями по мере готовности",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Выгрузка выдач", content = {
+                            @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema =
+                            @Schema(implementation = IssuanceTransform.class))
+                    })
+            }
+    )
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportIssuances() {
+        ObjectWriter writer = objectMapper.writerFor(IssuanceTransform.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = outputStream -> issuanceService.exportIssuances(chunk -> {
+            try {
+                for (IssuanceTransform issuanceTransform : chunk) {
+                    writer.writeValue(outputStream, issuanceTransform);
+                    outputStream.write('\n');
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(
             summary = "Получить выдачу",
             description = "Загрузить выдачу книги читателю по идентификатору",
@@ -113,6 +220,32 @@ public class IssuanceController {
         return ResponseEntity.status(HttpStatus.CREATED).body(issuance);
     }
 
+    @Operation(
+            summary = "Пакетное сохранение выдач",
+            description = "Сохранение выдачи книг по списку запросов. Книги и читатели проверяются пакетно, " +
+                    "лимит книг в одни руки соблюдается с учетом всех запросов пакета, принятые выдачи " +
+                    "сохраняются одной транзакцией",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Результат обработки каждого запроса", content = {
+                            @Content(mediaType = "application/json", array = @ArraySchema(schema =
+                            @Schema(implementation = IssuanceBatchResult.class)
+                            ))
+                    }),
+                    @ApiResponse(responseCode = "503", description = "Соединение с сервером не установлено",
+                            content = {@Content(mediaType = "*/*", schema = @Schema(implementation = String.class))})
+            }
+    )
+    @PostMapping("/batch")
+    public ResponseEntity<List<IssuanceBatchResult>> issuanceBooks(@RequestBody List<IssuanceRequest> requests) {
+        final List<IssuanceBatchResult> results;
+        try {
+            results = issuanceService.issuanceBooks(requests);
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK).body(results);
+    }
+
     @Operation(
             summary = "Изменение выдачи",
             description = "Возврат книги читателем в библиотеку, простановка времени возврата книги",
@@ -135,14 +268,30 @@ public class IssuanceController {
     public ResponseEntity<Issuance> returnBookByReader(@PathVariable long id) {
         Issuance issuance;
         try {
-            issuance = issuanceService.getIssuanceById(id);
-            issuanceService.returnBookByReader(issuance);
+            issuance = issuanceService.returnBookByReader(id);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
         return ResponseEntity.status(HttpStatus.OK).body(issuance);
     }
 
+    @Operation(
+            summary = "Пакетный возврат книг",
+            description = "Возврат книг по списку идентификаторов выдач. Открытые выдачи закрываются одним " +
+                    "обновлением, не найденные и уже закрытые выдачи пропускаются",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Закрытые и пропущенные выдачи", content = {
+                            @Content(mediaType = "application/json", schema =
+                            @Schema(implementation = IssuanceReturnResult.class)
+                            )
+                    })
+            }
+    )
+    @PutMapping("/return")
+    public ResponseEntity<IssuanceReturnResult> returnBooksByReaders(@RequestBody List<Long> ids) {
+        return ResponseEntity.status(HttpStatus.OK).body(issuanceService.returnBooksByReaders(ids));
+    }
+
     @Operation(
             summary = "Получить список выданных книг читателю",
             description = "Получение списка книг по идентификатору читателя",
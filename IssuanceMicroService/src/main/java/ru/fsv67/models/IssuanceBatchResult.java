@@ -0,0 +1,56 @@
+package ru.fsv67.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.fsv67.Issuance;
+
+/**
+ * Класс описывает результат обработки одного запроса пакетной выдачи
+ */
+@Data
+@NoArgsConstructor
+@Schema(description = "Результат пакетной выдачи по одному запросу")
+public class IssuanceBatchResult {
+
+    @Schema(description = "Порядковый номер запроса в пакете")
+    private int index;
+
+    @Schema(description = "Ссылка идентификатор книги")
+    private long bookId;
+
+    @Schema(description = "Ссылка идентификатор читателя")
+    private long readerId;
+
+    @Schema(description = "Результат обработки запроса")
+    private Status status;
+
+    @Schema(description = "Сохраненная выдача, если книга выдана")
+    private Issuance issuance;
+
+    @Schema(description = "Причина отказа в выдаче")
+    private String message;
+
+    public IssuanceBatchResult(int index, long bookId, long readerId) {
+        this.index = index;
+        this.bookId = bookId;
+        this.readerId = readerId;
+    }
+
+    public void accept(Issuance issuance) {
+        this.status = Status.CREATED;
+        this.issuance = issuance;
+    }
+
+    public void reject(Status status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public enum Status {
+        CREATED,
+        BOOK_NOT_FOUND,
+        READER_NOT_FOUND,
+        LIMIT_EXCEEDED
+    }
+}
@@ -0,0 +1,24 @@
+package ru.fsv67.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Класс описывает результат пакетного возврата книг
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Результат пакетного возврата книг")
+public class IssuanceReturnResult {
+
+    @Schema(description = "Идентификаторы выдач, закрытых этим запросом")
+    private List<Long> returned;
+
+    @Schema(description = "Идентификаторы выдач, которые не найдены или уже закрыты")
+    private List<Long> skipped;
+}
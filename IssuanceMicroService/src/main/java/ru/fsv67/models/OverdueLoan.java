@@ -0,0 +1,81 @@
+package ru.fsv67.models;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Класс описывает отметку о просрочке выдачи.
+ * Отметка ставится один раз, когда выдача пересекает срок возврата, и удаляется при возврате книги.
+ * Поэтому созданная отметка всегда новая: сохранение выполняет INSERT без предварительного SELECT,
+ * как было бы при merge. Отметка, прочитанная из БД или уже сохраненная, новой не считается
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Schema(description = "Просроченная выдача")
+@Table(name = "overdue_loan", indexes = {
+        @Index(name = "idx_overdue_loan_issued", columnList = "issuance_at, issuance_id")
+})
+public class OverdueLoan implements Persistable<Long> {
+
+    @Id
+    @Column(name = "issuance_id")
+    @Schema(description = "Идентификатор выдачи")
+    private Long issuanceId;
+
+    @Column(name = "book_id")
+    @Schema(description = "Ссылка идентификатор книги")
+    private Long bookId;
+
+    @Column(name = "reader_id")
+    @Schema(description = "Ссылка идентификатор читателя")
+    private Long readerId;
+
+    @Column(name = "issuance_at")
+    @Schema(description = "Дата и время выдачи книги")
+    private LocalDateTime issuanceAt;
+
+    @Column(name = "flagged_at")
+    @Schema(description = "Дата и время обнаружения просрочки")
+    private LocalDateTime flaggedAt;
+
+    @Transient
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean stored;
+
+    public OverdueLoan(Long issuanceId, Long bookId, Long readerId, LocalDateTime issuanceAt, LocalDateTime flaggedAt) {
+        this.issuanceId = issuanceId;
+        this.bookId = bookId;
+        this.readerId = readerId;
+        this.issuanceAt = issuanceAt;
+        this.flaggedAt = flaggedAt;
+    }
+
+    @Override
+    @JsonIgnore
+    public Long getId() {
+        return issuanceId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
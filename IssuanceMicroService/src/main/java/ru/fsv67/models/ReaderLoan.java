@@ -0,0 +1,31 @@
+package ru.fsv67.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Класс описывает счетчик открытых выдач читателя.
+ * Строка счетчика служит блокировкой уровня читателя при проверке лимита выдачи
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reader_loan")
+public class ReaderLoan {
+
+    @Id
+    @Column(name = "reader_id")
+    private Long readerId;
+
+    /**
+     * Количество открытых выдач читателя
+     */
+    @Column(name = "open_count", nullable = false)
+    private int openCount;
+}
@@ -0,0 +1,30 @@
+package ru.fsv67.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Класс описывает локальную копию читателя: идентификатор, имя и фамилию
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reader_name")
+public class ReaderName {
+
+    @Id
+    @Column(name = "reader_id")
+    private Long readerId;
+
+    @Column(name = "first_name")
+    private String firstName;
+
+    @Column(name = "last_name")
+    private String lastName;
+}
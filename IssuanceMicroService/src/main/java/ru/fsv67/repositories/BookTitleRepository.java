@@ -0,0 +1,12 @@
+package ru.fsv67.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.fsv67.models.BookTitle;
+
+/**
+ * Класс описывает локальную копию справочника книг
+ */
+@Repository
+public interface BookTitleRepository extends JpaRepository<BookTitle, Long> {
+}
@@ -1,10 +1,16 @@
 package ru.fsv67.repositories;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.fsv67.Issuance;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -21,6 +27,15 @@ public interface IssuanceRepository extends JpaRepository<Issuance, Long> {
     @Query("SELECT I FROM Issuance I WHERE I.readerId = :id and I.returned_at IS NULL")
     List<Issuance> findIssuanceByReaderId(long id);
 
+    /**
+     * Метод подсчета открытых выдач читателя без загрузки самих выдач
+     *
+     * @param id идентификатор читателя
+     * @return количество открытых выдач
+     */
+    @Query("SELECT COUNT(I) FROM Issuance I WHERE I.readerId = :id and I.returned_at IS NULL")
+    long countIssuanceByReaderId(long id);
+
     /**
      * Метод получения всего списка выдачи с сортировкой по ID
      *
@@ -29,4 +44,60 @@ public interface IssuanceRepository extends JpaRepository<Issuance, Long> {
     @Query("SELECT I FROM Issuance I ORDER BY I.id")
     List<Issuance> findAllOrderById();
 
+    /**
+     * Метод постраничной загрузки выдач по курсору
+     *
+     * @param id    идентификатор последней выдачи предыдущей страницы
+     * @param limit максимальное количество выдач
+     * @return выдачи с идентификатором больше заданного, отсортированные по идентификатору
+     */
+    List<Issuance> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    /**
+     * Метод закрывает выдачу, если она еще открыта.
+     * Проверка и простановка даты возврата выполняются одним оператором под блокировкой строки выдачи
+     *
+     * @param id  идентификатор выдачи
+     * @param now дата возврата
+     * @return 1, если выдача закрыта этим вызовом, иначе 0
+     */
+    @Modifying
+    @Query("UPDATE Issuance I SET I.returned_at = :now WHERE I.id = :id AND I.returned_at IS NULL")
+    int close(long id, LocalDateTime now);
+
+    /**
+     * Метод закрывает все открытые выдачи из списка одним оператором
+     *
+     * @param ids идентификаторы выдач
+     * @param now дата возврата
+     * @return количество закрытых выдач
+     */
+    @Modifying
+    @Query("UPDATE Issuance I SET I.returned_at = :now WHERE I.id IN :ids AND I.returned_at IS NULL")
+    int closeAll(Collection<Long> ids, LocalDateTime now);
+
+    /**
+     * Метод загружает открытые выдачи из списка с блокировкой строк до конца транзакции
+     *
+     * @param ids идентификаторы выдач
+     * @return открытые выдачи, отсортированные по идентификатору
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT I FROM Issuance I WHERE I.id IN :ids AND I.returned_at IS NULL ORDER BY I.id")
+    List<Issuance> findOpenForUpdate(Collection<Long> ids);
+
+    /**
+     * Метод загрузки открытых выдач, выданных не позже заданной даты, по курсору (дата выдачи, идентификатор).
+     * Запрос читает индекс (returned_at, issuance_at) с позиции курсора, поэтому проверяются только
+     * выдачи, пересекшие срок после предыдущей проверки
+     *
+     * @param at        дата выдачи последней проверенной выдачи
+     * @param id        идентификатор последней проверенной выдачи
+     * @param threshold дата выдачи, после которой выдача еще не просрочена
+     * @param limit     максимальное количество выдач
+     * @return открытые выдачи после курсора, отсортированные по дате выдачи и идентификатору
+     */
+    @Query("SELECT I FROM Issuance I WHERE I.returned_at IS NULL AND I.issuance_at >= :at " +
+            "AND I.issuance_at <= :threshold AND (I.issuance_at > :at OR I.id > :id) ORDER BY I.issuance_at, I.id")
+    List<Issuance> findOpenIssuedAfter(LocalDateTime at, long id, LocalDateTime threshold, Limit limit);
 }
@@ -0,0 +1,35 @@
+package ru.fsv67.repositories;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.fsv67.models.OverdueLoan;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Класс описывает отметки о просроченных выдачах
+ */
+@Repository
+public interface OverdueLoanRepository extends JpaRepository<OverdueLoan, Long> {
+    /**
+     * Метод постраничной загрузки просроченных выдач по курсору.
+     * Отметки выдач, закрытых после проверки, пропускаются
+     *
+     * @param id    идентификатор последней выдачи предыдущей страницы
+     * @param limit максимальное количество выдач
+     * @return открытые просроченные выдачи с идентификатором больше заданного, отсортированные по идентификатору
+     */
+    @Query("SELECT O FROM OverdueLoan O WHERE O.issuanceId > :id AND EXISTS " +
+            "(SELECT I.id FROM Issuance I WHERE I.id = O.issuanceId AND I.returned_at IS NULL) ORDER BY O.issuanceId")
+    List<OverdueLoan> findOpenAfter(long id, Limit limit);
+
+    /**
+     * Метод получения отметки самой поздней выдачи, с которой продолжается проверка после перезапуска
+     *
+     * @return отметка с наибольшими датой выдачи и идентификатором, отсутствует, если отметок нет
+     */
+    Optional<OverdueLoan> findFirstByOrderByIssuanceAtDescIssuanceIdDesc();
+}
@@ -0,0 +1,74 @@
+package ru.fsv67.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.fsv67.models.ReaderLoan;
+
+import java.util.Optional;
+
+/**
+ * Класс описывает счетчики открытых выдач читателей
+ */
+@Repository
+public interface ReaderLoanRepository extends JpaRepository<ReaderLoan, Long> {
+    /**
+     * Метод увеличивает счетчик открытых выдач читателя, если лимит не превышен.
+     * Проверка и увеличение выполняются одним оператором под блокировкой строки читателя
+     *
+     * @param id  идентификатор читателя
+     * @param max максимальное количество открытых выдач
+     * @return 1, если выдача разрешена, иначе 0
+     */
+    @Modifying
+    @Query("UPDATE ReaderLoan L SET L.openCount = L.openCount + 1 WHERE L.readerId = :id AND L.openCount < :max")
+    int acquire(long id, int max);
+
+    /**
+     * Метод уменьшает счетчик открытых выдач читателя
+     *
+     * @param id идентификатор читателя
+     * @return количество измененных счетчиков
+     */
+    @Modifying
+    @Query("UPDATE ReaderLoan L SET L.openCount = L.openCount - 1 WHERE L.readerId = :id AND L.openCount > 0")
+    int release(long id);
+
+    /**
+     * Метод уменьшает счетчик открытых выдач читателя на заданное количество, не опуская его ниже нуля
+     *
+     * @param id    идентификатор читателя
+     * @param count количество закрытых выдач
+     * @return количество измененных счетчиков
+     */
+    @Modifying
+    @Query("UPDATE ReaderLoan L SET L.openCount = CASE WHEN L.openCount > :count THEN L.openCount - :count ELSE 0 END " +
+            "WHERE L.readerId = :id AND L.openCount > 0")
+    int release(long id, int count);
+
+    /**
+     * Метод создает счетчик читателя по текущему количеству открытых выдач, если счетчика еще нет.
+     * Существующий счетчик не перезаписывается и не приводит к ошибке целостности
+     *
+     * @param id идентификатор читателя
+     * @return 1, если счетчик создан, 0, если он уже существует
+     */
+    @Modifying
+    @Query(value = "INSERT INTO reader_loan (reader_id, open_count) " +
+            "SELECT :id, COUNT(*) FROM issuance WHERE reader_id = :id AND returned_at IS NULL " +
+            "HAVING NOT EXISTS (SELECT 1 FROM reader_loan WHERE reader_id = :id)", nativeQuery = true)
+    int create(long id);
+
+    /**
+     * Метод загружает счетчик читателя с блокировкой строки до конца транзакции
+     *
+     * @param id идентификатор читателя
+     * @return счетчик открытых выдач читателя
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT L FROM ReaderLoan L WHERE L.readerId = :id")
+    Optional<ReaderLoan> findForUpdate(long id);
+}
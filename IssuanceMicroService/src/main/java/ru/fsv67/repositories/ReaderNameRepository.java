@@ -0,0 +1,12 @@
+package ru.fsv67.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.fsv67.models.ReaderName;
+
+/**
+ * Класс описывает локальную копию справочника читателей
+ */
+@Repository
+public interface ReaderNameRepository extends JpaRepository<ReaderName, Long> {
+}
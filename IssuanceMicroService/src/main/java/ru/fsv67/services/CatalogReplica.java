@@ -0,0 +1,225 @@
+package ru.fsv67.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import ru.fsv67.Book;
+import ru.fsv67.CatalogProperties;
+import ru.fsv67.CursorPage;
+import ru.fsv67.Reader;
+import ru.fsv67.events.CatalogEvent;
+import ru.fsv67.events.CatalogEventBatch;
+import ru.fsv67.models.BookTitle;
+import ru.fsv67.models.ReaderName;
+import ru.fsv67.repositories.BookTitleRepository;
+import ru.fsv67.repositories.ReaderNameRepository;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Класс описывает локальную копию справочников книг и читателей.
+ * Копия заполняется из журналов событий сервисов книг и читателей: при запуске и после перезапуска
+ * сервиса-источника справочник загружается постранично, затем применяются только новые события.
+ * Пока копия не загружена или сущность в ней не найдена, вызывающий код обращается к удаленному сервису
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(CatalogProperties.class)
+public class CatalogReplica {
+    private final CatalogProperties properties;
+    private final BookTitleRepository bookTitleRepository;
+    private final ReaderNameRepository readerNameRepository;
+    private final Feed<Book> books;
+    private final Feed<Reader> readers;
+
+    public CatalogReplica(CatalogProperties properties, LibraryApiClient libraryApiClient,
+                          BookTitleRepository bookTitleRepository, ReaderNameRepository readerNameRepository) {
+        this.properties = properties;
+        this.bookTitleRepository = bookTitleRepository;
+        this.readerNameRepository = readerNameRepository;
+        this.books = new Feed<>("книг",
+                (after, limit) -> libraryApiClient.fetchBookEvents(after, limit),
+                (after, size) -> libraryApiClient.fetchBookPage(after, size),
+                list -> bookTitleRepository.saveAll(list.stream()
+                        .map(book -> new BookTitle(book.getId(), book.getTitle()))
+                        .toList()),
+                ids -> bookTitleRepository.deleteAllByIdInBatch(ids),
+                () -> bookTitleRepository.deleteAllInBatch());
+        this.readers = new Feed<>("читателей",
+                (after, limit) -> libraryApiClient.fetchReaderEvents(after, limit),
+                (after, size) -> libraryApiClient.fetchReaderPage(after, size),
+                list -> readerNameRepository.saveAll(list.stream()
+                        .map(reader -> new ReaderName(reader.getId(), reader.getFirstName(), reader.getLastName()))
+                        .toList()),
+                ids -> readerNameRepository.deleteAllByIdInBatch(ids),
+                () -> readerNameRepository.deleteAllInBatch());
+    }
+
+    /**
+     * Метод опроса журналов событий сервисов книг и читателей
+     */
+    @Scheduled(fixedDelayString = "${application.catalog.poll-interval:1000}")
+    void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        books.poll();
+        readers.poll();
+    }
+
+    /**
+     * Метод поиска книг в локальной копии
+     *
+     * @param ids - идентификаторы книг
+     * @return найденные книги по идентификатору, пустой результат, если копия еще не загружена
+     */
+    public Map<Long, Book> findBooks(Collection<Long> ids) {
+        if (!books.ready || ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Book> found = new HashMap<>();
+        for (BookTitle title : bookTitleRepository.findAllById(ids)) {
+            Book book = new Book(title.getTitle());
+            book.setId(title.getBookId());
+            found.put(title.getBookId(), book);
+        }
+        return found;
+    }
+
+    /**
+     * Метод поиска читателей в локальной копии
+     *
+     * @param ids - идентификаторы читателей
+     * @return найденные читатели по идентификатору, пустой результат, если копия еще не загружена
+     */
+    public Map<Long, Reader> findReaders(Collection<Long> ids) {
+        if (!readers.ready || ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Reader> found = new HashMap<>();
+        for (ReaderName name : readerNameRepository.findAllById(ids)) {
+            Reader reader = new Reader(name.getFirstName(), name.getLastName());
+            reader.setId(name.getReaderId());
+            found.put(name.getReaderId(), reader);
+        }
+        return found;
+    }
+
+    /**
+     * Класс описывает чтение журнала событий одного справочника
+     *
+     * @param <T> тип сущности справочника
+     */
+    private final class Feed<T> {
+        private final String name;
+        private final BiFunction<Long, Integer, Mono<CatalogEventBatch<T>>> events;
+        private final BiFunction<Long, Integer, Mono<CursorPage<T>>> pages;
+        private final Consumer<List<T>> upsert;
+        private final Consumer<List<Long>> delete;
+        private final Runnable clear;
+        private volatile boolean ready;
+        private String epoch;
+        private long cursor;
+        private boolean failing;
+
+        private Feed(String name, BiFunction<Long, Integer, Mono<CatalogEventBatch<T>>> events,
+                     BiFunction<Long, Integer, Mono<CursorPage<T>>> pages,
+                     Consumer<List<T>> upsert, Consumer<List<Long>> delete, Runnable clear) {
+            this.name = name;
+            this.events = events;
+            this.pages = pages;
+            this.upsert = upsert;
+            this.delete = delete;
+            this.clear = clear;
+        }
+
+        /**
+         * Метод применения новых событий. Читает журнал, пока не дойдет до последнего события.
+         * При первом опросе справочник загружается полностью: журнал источника не содержит записей,
+         * сохраненных в его БД до запуска, а копия в БД сервиса выдачи могла сохраниться с прошлого запуска
+         */
+        private void poll() {
+            try {
+                CatalogEventBatch<T> batch;
+                do {
+                    batch = events.apply(cursor, properties.getBatchSize()).block();
+                    if (batch == null) {
+                        return;
+                    }
+                    if (!batch.getEpoch().equals(epoch) || !batch.isContinuousAfter(cursor)) {
+                        snapshot(batch);
+                        return;
+                    }
+                    apply(batch.getEvents());
+                } while (cursor < batch.getLastSequence() && !batch.getEvents().isEmpty());
+                ready = true;
+                if (failing) {
+                    failing = false;
+                    log.info("Чтение журнала событий {} восстановлено", name);
+                }
+            } catch (RuntimeException e) {
+                if (!failing) {
+                    failing = true;
+                    log.warn("Журнал событий {} недоступен: {}", name, e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Метод полной загрузки справочника. Номер последнего события запоминается до загрузки,
+         * события, вошедшие в загруженные страницы, применяются повторно без изменения результата
+         */
+        private void snapshot(CatalogEventBatch<T> head) {
+            ready = false;
+            clear.run();
+            long loaded = 0;
+            Long after = null;
+            do {
+                CursorPage<T> page = pages.apply(after, properties.getSnapshotPageSize()).block();
+                if (page == null || page.getItems().isEmpty()) {
+                    break;
+                }
+                upsert.accept(page.getItems());
+                loaded += page.getItems().size();
+                after = page.getNextCursor();
+            } while (after != null);
+            epoch = head.getEpoch();
+            cursor = head.getLastSequence();
+            ready = true;
+            log.info("Справочник {} загружен полностью: {} записей, последнее событие {}", name, loaded, cursor);
+        }
+
+        /**
+         * Метод применения событий. Для каждой сущности учитывается только последнее событие
+         */
+        private void apply(List<CatalogEvent<T>> list) {
+            if (list.isEmpty()) {
+                return;
+            }
+            Map<Long, T> latest = new LinkedHashMap<>();
+            for (CatalogEvent<T> event : list) {
+                latest.put(event.getId(), event.getType() == CatalogEvent.Type.CREATED ? event.getPayload() : null);
+            }
+            List<T> created = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            latest.forEach((id, payload) -> {
+                if (payload == null) {
+                    deleted.add(id);
+                } else {
+                    created.add(payload);
+                }
+            });
+            if (!created.isEmpty()) {
+                upsert.accept(created);
+            }
+            if (!deleted.isEmpty()) {
+                delete.accept(deleted);
+            }
+            cursor = list.get(list.size() - 1).getSequence();
+        }
+    }
+}
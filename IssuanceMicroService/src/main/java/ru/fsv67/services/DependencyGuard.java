@@ -0,0 +1,158 @@
+package ru.fsv67.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import reactor.core.publisher.Mono;
+import ru.fsv67.RemoteProperties;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Класс ограничивает обращения к одному удаленному сервису.
+ * Количество одновременных обращений ограничено, сверх него запрос отклоняется без ожидания.
+ * Обращение прерывается по истечении заданного времени.
+ * Если включен повторный запрос, то после задержки, равной заданному перцентилю времени ответа,
+ * отправляется второй запрос, и используется первый полученный ответ.
+ * Повторный запрос передает балансировщику экземпляр основного запроса для исключения,
+ * см. {@link ru.fsv67.HedgeLoadBalancerConfiguration}.
+ * Доля повторных запросов ограничена, чтобы не удваивать нагрузку на медленный сервис
+ */
+public class DependencyGuard {
+    public static final String METRIC = "library.remote.guard";
+    /**
+     * Атрибут основного запроса: {@code AtomicReference<String>}, в который балансировщик записывает
+     * адрес выбранного экземпляра
+     */
+    public static final String SELECTED_ATTRIBUTE = "library.guard.selected";
+    /**
+     * Атрибут повторного запроса: адрес экземпляра основного запроса, который не выбирается балансировщиком
+     */
+    public static final String EXCLUDED_ATTRIBUTE = "library.guard.excluded";
+    private static final long HEDGE_DELAY_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private final String target;
+    private final RemoteProperties.Dependency properties;
+    private final Semaphore bulkhead;
+    private final Timer latency;
+    private final Counter rejected;
+    private final Counter hedged;
+    private double hedgeTokens;
+    private volatile long hedgeDelayNanos;
+    private volatile long hedgeDelayUpdatedAt = System.nanoTime() - HEDGE_DELAY_REFRESH_NANOS;
+
+    public DependencyGuard(String target, RemoteProperties.Dependency properties, MeterRegistry meterRegistry) {
+        this.target = target;
+        this.properties = properties;
+        this.bulkhead = new Semaphore(properties.getMaxConcurrentCalls());
+        this.hedgeDelayNanos = properties.getHedgeMinDelay().toNanos();
+        this.latency = Timer.builder(METRIC + ".latency")
+                .description("Время успешных ответов удаленного сервиса для расчета задержки повторного запроса")
+                .tag("target", target)
+                .publishPercentiles(properties.getHedgePercentile())
+                .register(meterRegistry);
+        this.rejected = counter("rejected", meterRegistry);
+        this.hedged = counter("hedged", meterRegistry);
+    }
+
+    private Counter counter(String event, MeterRegistry meterRegistry) {
+        return Counter.builder(METRIC + ".events")
+                .description("Отклоненные и повторные обращения к удаленному сервису")
+                .tag("target", target)
+                .tag("event", event)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Метод выполнения обращения с ограничениями
+     *
+     * @param request - обращение к удаленному сервису, может быть выполнено дважды при повторном запросе,
+     *                принимает заполнение атрибутов запроса для балансировщика
+     * @return результат первого завершившегося обращения
+     * @throws RejectedExecutionException если превышено количество одновременных обращений
+     */
+    public <T> Mono<T> call(Function<Consumer<Map<String, Object>>, Mono<T>> request) {
+        return Mono.defer(() -> {
+            if (!bulkhead.tryAcquire()) {
+                rejected.increment();
+                return Mono.<T>error(new RejectedExecutionException(
+                        "Превышено количество одновременных обращений к " + target));
+            }
+            AtomicReference<String> selected = new AtomicReference<>();
+            Mono<T> primary = attempt(() -> request.apply(
+                    attributes -> attributes.put(SELECTED_ATTRIBUTE, selected)));
+            if (!properties.isHedgeEnabled()) {
+                return primary.timeout(properties.getDeadline());
+            }
+            addHedgeToken();
+            Mono<T> hedge = Mono.delay(hedgeDelay())
+                    .then(Mono.defer(() -> {
+                        if (!bulkhead.tryAcquire()) {
+                            return Mono.<T>never();
+                        }
+                        if (!tryConsumeHedgeToken()) {
+                            bulkhead.release();
+                            return Mono.<T>never();
+                        }
+                        hedged.increment();
+                        return attempt(() -> request.apply(attributes -> {
+                            if (selected.get() != null) {
+                                attributes.put(EXCLUDED_ATTRIBUTE, selected.get());
+                            }
+                        }));
+                    }));
+            return Mono.firstWithSignal(primary, hedge).timeout(properties.getDeadline());
+        });
+    }
+
+    /**
+     * Метод выполнения одного запроса. Разрешение на обращение должно быть получено заранее
+     */
+    private <T> Mono<T> attempt(Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return Mono.defer(request)
+                    .doOnSuccess(value -> latency.record(System.nanoTime() - started, TimeUnit.NANOSECONDS))
+                    .doFinally(signal -> bulkhead.release());
+        });
+    }
+
+    /**
+     * Метод расчета задержки повторного запроса по перцентилю времени ответа.
+     * Значение пересчитывается не чаще раза в секунду
+     */
+    private Duration hedgeDelay() {
+        long now = System.nanoTime();
+        if (now - hedgeDelayUpdatedAt >= HEDGE_DELAY_REFRESH_NANOS) {
+            hedgeDelayUpdatedAt = now;
+            long delay = properties.getHedgeMinDelay().toNanos();
+            for (ValueAtPercentile value : latency.takeSnapshot().percentileValues()) {
+                delay = Math.max(delay, (long) value.value(TimeUnit.NANOSECONDS));
+            }
+            hedgeDelayNanos = delay;
+        }
+        return Duration.ofNanos(hedgeDelayNanos);
+    }
+
+    private synchronized void addHedgeToken() {
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + properties.getHedgeBudget());
+    }
+
+    private synchronized boolean tryConsumeHedgeToken() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens--;
+        return true;
+    }
+}
@@ -1,46 +1,56 @@
 package ru.fsv67.services;
 
-import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import ru.fsv67.Book;
+import ru.fsv67.CursorPage;
 import ru.fsv67.Issuance;
+import ru.fsv67.NearCacheProperties;
+import ru.fsv67.PageProperties;
 import ru.fsv67.Reader;
 import ru.fsv67.ReaderProperties;
+import ru.fsv67.RemoteProperties;
 import ru.fsv67.controllers.IssuanceRequest;
+import ru.fsv67.models.IssuanceBatchResult;
+import ru.fsv67.models.IssuanceReturnResult;
 import ru.fsv67.models.IssuanceTransform;
 import ru.fsv67.repositories.IssuanceRepository;
+import ru.fsv67.seed.DataSeeder;
 
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-//@RequiredArgsConstructor
-@EnableConfigurationProperties(ReaderProperties.class)
-public class IssuanceService {
+@RequiredArgsConstructor
+@EnableConfigurationProperties({ReaderProperties.class, RemoteProperties.class, NearCacheProperties.class,
+        PageProperties.class})
+public class IssuanceService implements DataSeeder {
     private final IssuanceRepository issuanceRepository;
     private final ReaderProperties maxIssuedBooks;
-    private final WebClient webClient;
-
-
-    public IssuanceService(IssuanceRepository issuanceRepository, ReaderProperties maxIssuedBooks,
-                           ReactorLoadBalancerExchangeFilterFunction loadBalancerExchangeFilterFunction) {
-        this.issuanceRepository = issuanceRepository;
-        this.maxIssuedBooks = maxIssuedBooks;
-        webClient = WebClient.builder()
-                .filter(loadBalancerExchangeFilterFunction)
-                .build();
-    }
+    private final RemoteProperties remoteProperties;
+    private final LibraryApiClient libraryApiClient;
+    private final ReaderLoanService readerLoanService;
+    private final PageProperties pageProperties;
+    private final CatalogReplica catalogReplica;
 
 
     /**
-     * Первоначальные тестовые данные
+     * Первоначальные тестовые данные. Момент добавления задается настройкой application.seed.mode.
+     * Если в хранилище уже есть выдачи, данные не добавляются. Проверка читает одну строку по первичному ключу
      */
-    @PostConstruct
-    void generateData() {
+    @Override
+    public void seed() {
+        if (!issuanceRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(1)).isEmpty()) {
+            return;
+        }
         Random random = new Random();
         List<Issuance> issuanceList = new ArrayList<>();
         for (int i = 0; i < 20; i++) {
@@ -51,10 +61,11 @@ public class IssuanceService {
                 i--;
             }
         }
-        issuanceRepository.saveAll(issuanceList);
-        returnBookByReader(getIssuanceById(random.nextInt(20) + 1));
-        returnBookByReader(getIssuanceById(random.nextInt(20) + 1));
-        returnBookByReader(getIssuanceById(random.nextInt(20) + 1));
+        List<Long> ids = new ArrayList<>(issuanceRepository.saveAll(issuanceList).stream()
+                .map(Issuance::getId)
+                .toList());
+        Collections.shuffle(ids, random);
+        returnBooksByReaders(ids.subList(0, 3));
     }
 
     /**
@@ -63,15 +74,51 @@ public class IssuanceService {
      * @return если список не пуст, то метод возвращает список всех выдач книг, иначе исключение
      */
     public List<IssuanceTransform> getIssuanceList() {
-        List<IssuanceTransform> issuanceList = new ArrayList<>();
         List<Issuance> list = issuanceRepository.findAllOrderById();
         if (list.isEmpty()) {
             throw new NullPointerException("Книги не кому не выдавались");
         }
-        for (Issuance issuance : list) {
-            issuanceList.add(createIssuanceDTO(issuance));
+        return createIssuanceDTOList(list);
+    }
+
+    /**
+     * Метод постраничного получения списка выдач книг с полным описанием
+     *
+     * @param after идентификатор последней выдачи предыдущей страницы, отсутствует для первой страницы
+     * @param size  размер страницы, при отсутствии используется размер по умолчанию
+     * @return если первая страница не пуста, то метод возвращает страницу выдач, иначе исключение
+     */
+    public CursorPage<IssuanceTransform> getIssuancePage(Long after, Integer size) {
+        int pageSize = pageProperties.resolveSize(size);
+        List<Issuance> list = issuanceRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0 : after, Limit.of(pageSize + 1)
+        );
+        if (after == null && list.isEmpty()) {
+            throw new NullPointerException("Книги не кому не выдавались");
         }
-        return issuanceList;
+        CursorPage<Issuance> page = CursorPage.of(list, pageSize, Issuance::getId);
+        return new CursorPage<>(createIssuanceDTOList(page.getItems()), page.getNextCursor());
+    }
+
+    /**
+     * Метод последовательной выгрузки всех выдач с полным описанием.
+     * Выдачи читаются порциями по курсору, размер порции совпадает с размером пакетного запроса
+     * {@link RemoteProperties#getBatchSize()}, поэтому каждая порция обогащается одним пакетом.
+     * Следующая порция читается только после того, как получатель обработал предыдущую
+     *
+     * @param consumer получатель порций выдач в порядке возрастания идентификатора
+     */
+    public void exportIssuances(Consumer<List<IssuanceTransform>> consumer) {
+        int chunkSize = Math.max(1, remoteProperties.getBatchSize());
+        long after = 0;
+        List<Issuance> chunk;
+        do {
+            chunk = issuanceRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(chunkSize));
+            if (!chunk.isEmpty()) {
+                consumer.accept(createIssuanceDTOList(chunk));
+                after = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == chunkSize);
     }
 
     /**
@@ -104,7 +151,10 @@ public class IssuanceService {
 
     /**
      * Метод обрабатывает введенные данные пользователем
-     * при выдаче книг читателю
+     * при выдаче книг читателю. Лимит книг в одни руки проверяется атомарно в {@link ReaderLoanService}.
+     * Книга и читатель ищутся в локальной копии справочников {@link CatalogReplica}, при отсутствии -
+     * в удаленных сервисах. Время и количество одновременных удаленных проверок ограничиваются настройками
+     * {@link RemoteProperties#getBook()} и {@link RemoteProperties#getReader()}
      *
      * @param issuanceRequest данные введенные пользователем
      * @return если данные введенные пользователем корректны, то метод вернет информацию о выдаче книги читателю,
@@ -112,40 +162,98 @@ public class IssuanceService {
      */
     public Issuance issuanceBook(IssuanceRequest issuanceRequest) {
         try {
-            getBookByIdInApi(issuanceRequest.getBookId());
+            if (catalogReplica.findBooks(List.of(issuanceRequest.getBookId())).isEmpty()) {
+                getBookByIdInApi(issuanceRequest.getBookId());
+            }
         } catch (WebClientResponseException e) {
             throw new NoSuchElementException("Не найдена книга с ID = " + issuanceRequest.getBookId());
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Сервер книг перегружен, повторите запрос позже");
         } catch (Exception e) {
             throw new RuntimeException("Соединение с сервером книг не установлено");
         }
 
         try {
-            getReaderByIdInApi(issuanceRequest.getReaderId());
+            if (catalogReplica.findReaders(List.of(issuanceRequest.getReaderId())).isEmpty()) {
+                getReaderByIdInApi(issuanceRequest.getReaderId());
+            }
         } catch (WebClientResponseException e) {
             throw new NoSuchElementException("Не найден читатель с ID = " + issuanceRequest.getReaderId());
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Сервер читателей перегружен, повторите запрос позже");
         } catch (Exception e) {
             throw new RuntimeException("Соединение с сервером читатели не установлено");
         }
 
-        if (getIssuanceByIdReader(issuanceRequest.getReaderId()).size() >= maxIssuedBooks.getMaxAllowedBooks()) {
-            throw new IllegalStateException(
-                    "Читатель с ID = " + issuanceRequest.getReaderId() + " превысил лимит книг в одни руки"
-            );
+        return readerLoanService.issue(issuanceRequest.getBookId(), issuanceRequest.getReaderId());
+    }
+
+    /**
+     * Метод обрабатывает пакет запросов на выдачу книг.
+     * Книги и читатели проверяются пакетными запросами по уникальным идентификаторам,
+     * принятые выдачи сохраняются одной транзакцией
+     *
+     * @param requests запросы на выдачу
+     * @return результат обработки каждого запроса в порядке следования запросов
+     */
+    public List<IssuanceBatchResult> issuanceBooks(List<IssuanceRequest> requests) {
+        Set<Long> bookIds = requests.stream().map(IssuanceRequest::getBookId).collect(Collectors.toSet());
+        Set<Long> readerIds = requests.stream().map(IssuanceRequest::getReaderId).collect(Collectors.toSet());
+        Map<Long, Book> books;
+        Map<Long, Reader> readers;
+        try {
+            var tuple = Mono.zip(books(bookIds, libraryApiClient::fetchBooks),
+                            readers(readerIds, libraryApiClient::fetchReaders))
+                    .block();
+            books = tuple.getT1();
+            readers = tuple.getT2();
+        } catch (Exception e) {
+            throw new RuntimeException("Соединение с сервером книг или читателей не установлено");
         }
-        Issuance issuance = new Issuance(issuanceRequest.getBookId(), issuanceRequest.getReaderId());
-        issuanceRepository.save(issuance);
-        return issuance;
+
+        List<IssuanceBatchResult> results = new ArrayList<>(requests.size());
+        List<IssuanceBatchResult> pending = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            IssuanceRequest request = requests.get(i);
+            IssuanceBatchResult result = new IssuanceBatchResult(i, request.getBookId(), request.getReaderId());
+            if (!books.containsKey(request.getBookId())) {
+                result.reject(IssuanceBatchResult.Status.BOOK_NOT_FOUND,
+                        "Не найдена книга с ID = " + request.getBookId());
+            } else if (!readers.containsKey(request.getReaderId())) {
+                result.reject(IssuanceBatchResult.Status.READER_NOT_FOUND,
+                        "Не найден читатель с ID = " + request.getReaderId());
+            } else {
+                pending.add(result);
+            }
+            results.add(result);
+        }
+        if (!pending.isEmpty()) {
+            readerLoanService.issueBatch(pending);
+        }
+        return results;
     }
 
     /**
      * Метод проставляет дату возврата книги читателем, тем самым закрывает выдачу
+     *
+     * @param id идентификатор выдачи
+     * @return закрытая выдача, если выдача не найдена или уже закрыта, то исключение
      */
-    public void returnBookByReader(Issuance issuance) {
-        if (!Objects.isNull(issuance.getReturned_at())) {
-            throw new NoSuchElementException("Выдача с ID = " + issuance.getId() + " закрыта");
-        }
-        issuance.setReturned_at(LocalDateTime.now());
-        issuanceRepository.save(issuance);
+    public Issuance returnBookByReader(long id) {
+        return readerLoanService.close(id);
+    }
+
+    /**
+     * Метод закрывает выдачи по списку идентификаторов одним обновлением
+     *
+     * @param ids идентификаторы выдач
+     * @return закрытые и пропущенные выдачи
+     */
+    public IssuanceReturnResult returnBooksByReaders(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        List<Long> returned = requested.isEmpty() ? List.of() : readerLoanService.closeAll(requested);
+        requested.removeAll(returned);
+        return new IssuanceReturnResult(returned, new ArrayList<>(requested));
     }
 
     /**
@@ -155,13 +263,7 @@ public class IssuanceService {
      * @return Описание книги
      */
     private Book getBookByIdInApi(Long id) {
-        Book book = webClient.get()
-                .uri("http://BOOK-SERVICE/book/" + id)
-                .retrieve()
-                .bodyToMono(Book.class)
-                .block();
-        ;
-        return book;
+        return libraryApiClient.validateBook(id).block();
     }
 
     /**
@@ -171,26 +273,122 @@ public class IssuanceService {
      * @return описание читателя
      */
     private Reader getReaderByIdInApi(Long id) {
-        Reader reader = webClient.get()
-                .uri("http://READER-SERVICE/reader/" + id)
-                .retrieve()
-                .bodyToMono(Reader.class)
+        return libraryApiClient.validateReader(id).block();
+    }
+
+    /**
+     * Метод преобразования списка выдач в выдачи с полным описанием.
+     * Способ загрузки книг и читателей задается настройкой {@link RemoteProperties#getEnrichment()}
+     *
+     * @param list стандартные выдачи
+     * @return выдачи с полным описанием в исходном порядке
+     */
+    public List<IssuanceTransform> createIssuanceDTOList(List<Issuance> list) {
+        return switch (remoteProperties.getEnrichment()) {
+            case BATCH -> createIssuanceDTOListBatch(list);
+            case CONCURRENT -> createIssuanceDTOListConcurrent(list);
+        };
+    }
+
+    /**
+     * Книги и читатели загружаются пакетно по уникальным идентификаторам одновременно и соединяются в памяти
+     */
+    private List<IssuanceTransform> createIssuanceDTOListBatch(List<Issuance> list) {
+        return Mono.zip(
+                        books(list.stream().map(Issuance::getBookId).collect(Collectors.toSet()),
+                                libraryApiClient::getBooks),
+                        readers(list.stream().map(Issuance::getReaderId).collect(Collectors.toSet()),
+                                libraryApiClient::getReaders)
+                )
+                .map(tuple -> list.stream()
+                        .map(issuance -> createIssuanceDTO(issuance, tuple.getT1().get(issuance.getBookId()),
+                                tuple.getT2().get(issuance.getReaderId())))
+                        .toList())
                 .block();
-        ;
-        return reader;
     }
 
     /**
-     * Метод преобразования стандартной выдачи в выдачу с полным описанием
+     * Каждая выдача обогащается отдельно, но не более {@link RemoteProperties#getConcurrency()} выдач за раз.
+     * Порядок выдач сохраняется
+     */
+    private List<IssuanceTransform> createIssuanceDTOListConcurrent(List<Issuance> list) {
+        return Flux.fromIterable(list)
+                .flatMapSequential(issuance -> Mono.zip(
+                                        orEmpty(book(issuance.getBookId())),
+                                        orEmpty(reader(issuance.getReaderId()))
+                                )
+                                .map(tuple -> createIssuanceDTO(issuance, tuple.getT1().orElse(null),
+                                        tuple.getT2().orElse(null))),
+                        remoteProperties.getConcurrency())
+                .collectList()
+                .block();
+    }
+
+    /**
+     * Метод поиска книг: сначала в локальной копии справочника, отсутствующие - в удаленном сервисе
+     */
+    private Mono<Map<Long, Book>> books(Set<Long> ids, Function<Set<Long>, Mono<Map<Long, Book>>> remote) {
+        return withRemote(ids, catalogReplica.findBooks(ids), remote);
+    }
+
+    /**
+     * Метод поиска читателей: сначала в локальной копии справочника, отсутствующие - в удаленном сервисе
+     */
+    private Mono<Map<Long, Reader>> readers(Set<Long> ids, Function<Set<Long>, Mono<Map<Long, Reader>>> remote) {
+        return withRemote(ids, catalogReplica.findReaders(ids), remote);
+    }
+
+    private static <T> Mono<Map<Long, T>> withRemote(Set<Long> ids, Map<Long, T> local,
+                                                     Function<Set<Long>, Mono<Map<Long, T>>> remote) {
+        if (local.size() == ids.size()) {
+            return Mono.just(local);
+        }
+        Set<Long> missing = new HashSet<>(ids);
+        missing.removeAll(local.keySet());
+        return remote.apply(missing).map(found -> {
+            Map<Long, T> result = new HashMap<>(local);
+            result.putAll(found);
+            return result;
+        });
+    }
+
+    private Mono<Book> book(long id) {
+        Book book = catalogReplica.findBooks(List.of(id)).get(id);
+        return book != null ? Mono.just(book) : libraryApiClient.getBook(id);
+    }
+
+    private Mono<Reader> reader(long id) {
+        Reader reader = catalogReplica.findReaders(List.of(id)).get(id);
+        return reader != null ? Mono.just(reader) : libraryApiClient.getReader(id);
+    }
+
+    /**
+     * Отсутствующая в удаленном сервисе сущность не прерывает обогащение списка
+     */
+    private static <T> Mono<Optional<T>> orEmpty(Mono<T> mono) {
+        return mono.map(Optional::of)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    /**
+     * Метод преобразования стандартной выдачи в выдачу с полным описанием.
+     * Книга и читатель запрашиваются одновременно
      *
      * @param issuance стандартная выдача
      * @return Выдача с полным описанием
      */
     public IssuanceTransform createIssuanceDTO(Issuance issuance) {
+        return Mono.zip(book(issuance.getBookId()), reader(issuance.getReaderId()))
+                .map(tuple -> createIssuanceDTO(issuance, tuple.getT1(), tuple.getT2()))
+                .block();
+    }
+
+    private IssuanceTransform createIssuanceDTO(Issuance issuance, Book book, Reader reader) {
         IssuanceTransform issuanceTransform = new IssuanceTransform();
         issuanceTransform.setId(issuance.getId());
-        issuanceTransform.setBook(getBookByIdInApi(issuance.getBookId()));
-        issuanceTransform.setReader(getReaderByIdInApi(issuance.getReaderId()));
+        issuanceTransform.setBook(book);
+        issuanceTransform.setReader(reader);
         issuanceTransform.setIssuance_at(issuance.getIssuance_at());
         issuanceTransform.setReturned_at(issuance.getReturned_at());
         return issuanceTransform;
@@ -0,0 +1,351 @@
+package ru.fsv67.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.fsv67.Book;
+import ru.fsv67.CursorPage;
+import ru.fsv67.NearCacheProperties;
+import ru.fsv67.Reader;
+import ru.fsv67.RemoteProperties;
+import ru.fsv67.events.CatalogEventBatch;
+import ru.fsv67.models.NearCacheStats;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Класс описывает обращение к сервисам книг и читателей через API.
+ * Методы не блокируют поток, что позволяет выполнять запросы одновременно.
+ * Методы get* используют локальный кэш, методы fetch* всегда обращаются к удаленному сервису.
+ * Запросы выполняются общим клиентом libraryWebClient с пулом соединений и балансировкой
+ */
+@Component
+public class LibraryApiClient {
+    private static final String BOOK_SERVICE = "book-service";
+    private static final String READER_SERVICE = "reader-service";
+    /**
+     * Запрос без атрибутов для балансировщика, атрибуты задаются только при проверке через {@link DependencyGuard}
+     */
+    private static final Consumer<Map<String, Object>> NO_ATTRIBUTES = attributes -> {
+    };
+    /**
+     * Списки читаются целиком: потоковое чтение CBOR не поддерживается
+     */
+    private static final ParameterizedTypeReference<List<Book>> BOOK_LIST = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<Reader>> READER_LIST = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<CatalogEventBatch<Book>> BOOK_EVENTS =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<CatalogEventBatch<Reader>> READER_EVENTS =
+            new ParameterizedTypeReference<>() {
+            };
+    private static final ParameterizedTypeReference<CursorPage<Book>> BOOK_PAGE = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<CursorPage<Reader>> READER_PAGE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RemoteProperties remoteProperties;
+    private final WebClient webClient;
+    private final RemoteCallTimer timer;
+    private final SingleFlight<Long, Book> bookFlight;
+    private final SingleFlight<Long, Reader> readerFlight;
+    private final SingleFlight<Long, Book> bookValidationFlight;
+    private final SingleFlight<Long, Reader> readerValidationFlight;
+    private final DependencyGuard bookGuard;
+    private final DependencyGuard readerGuard;
+    private final NearCache<Book> bookCache;
+    private final NearCache<Reader> readerCache;
+
+    public LibraryApiClient(RemoteProperties remoteProperties, NearCacheProperties cacheProperties,
+                            MeterRegistry meterRegistry, WebClient webClient) {
+        this.remoteProperties = remoteProperties;
+        this.webClient = webClient;
+        this.timer = new RemoteCallTimer(meterRegistry);
+        this.bookFlight = new SingleFlight<>(BOOK_SERVICE, "get", meterRegistry);
+        this.readerFlight = new SingleFlight<>(READER_SERVICE, "get", meterRegistry);
+        this.bookValidationFlight = new SingleFlight<>(BOOK_SERVICE, "validate", meterRegistry);
+        this.readerValidationFlight = new SingleFlight<>(READER_SERVICE, "validate", meterRegistry);
+        this.bookGuard = new DependencyGuard(BOOK_SERVICE, remoteProperties.getBook(), meterRegistry);
+        this.readerGuard = new DependencyGuard(READER_SERVICE, remoteProperties.getReader(), meterRegistry);
+        if (cacheProperties.isEnabled()) {
+            bookCache = new NearCache<>("book", cacheProperties, this::fetchBook, this::fetchBooks);
+            readerCache = new NearCache<>("reader", cacheProperties, this::fetchReader, this::fetchReaders);
+            bookCache.bindTo(meterRegistry);
+            readerCache.bindTo(meterRegistry);
+        } else {
+            bookCache = null;
+            readerCache = null;
+        }
+    }
+
+    /**
+     * Метод получение книги по ID с использованием кэша
+     *
+     * @param id - идентификатор книги
+     * @return Описание книги
+     */
+    public Mono<Book> getBook(long id) {
+        return bookCache == null ? fetchBook(id) : bookCache.get(id);
+    }
+
+    /**
+     * Метод получение описание читателя по ID с использованием кэша
+     *
+     * @param id - идентификатор читателя
+     * @return описание читателя
+     */
+    public Mono<Reader> getReader(long id) {
+        return readerCache == null ? fetchReader(id) : readerCache.get(id);
+    }
+
+    /**
+     * Метод пакетного получения книг по списку ID с использованием кэша
+     *
+     * @param ids - идентификаторы книг
+     * @return найденные книги по идентификатору
+     */
+    public Mono<Map<Long, Book>> getBooks(Collection<Long> ids) {
+        return bookCache == null ? fetchBooks(ids) : bookCache.getAll(ids);
+    }
+
+    /**
+     * Метод пакетного получения читателей по списку ID с использованием кэша
+     *
+     * @param ids - идентификаторы читателей
+     * @return найденные читатели по идентификатору
+     */
+    public Mono<Map<Long, Reader>> getReaders(Collection<Long> ids) {
+        return readerCache == null ? fetchReaders(ids) : readerCache.getAll(ids);
+    }
+
+    /**
+     * Метод удаления книги из кэша
+     *
+     * @param id - идентификатор книги
+     */
+    public void invalidateBook(long id) {
+        if (bookCache != null) {
+            bookCache.invalidate(id);
+        }
+    }
+
+    /**
+     * Метод удаления читателя из кэша
+     *
+     * @param id - идентификатор читателя
+     */
+    public void invalidateReader(long id) {
+        if (readerCache != null) {
+            readerCache.invalidate(id);
+        }
+    }
+
+    /**
+     * Метод очистки кэшей книг и читателей
+     */
+    public void invalidateAll() {
+        if (bookCache != null) {
+            bookCache.invalidateAll();
+            readerCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Метод получения статистики кэшей книг и читателей
+     *
+     * @return статистика обращений к кэшам, пустой список при выключенном кэше
+     */
+    public List<NearCacheStats> cacheStats() {
+        if (bookCache == null) {
+            return List.of();
+        }
+        return List.of(bookCache.stats(), readerCache.stats());
+    }
+
+    /**
+     * Метод получение книги по ID через API.
+     * Одновременные запросы одной книги выполняются одним обращением
+     *
+     * @param id - идентификатор книги
+     * @return Описание книги
+     */
+    public Mono<Book> fetchBook(long id) {
+        return bookFlight.execute(id, () -> requestBook(id, NO_ATTRIBUTES));
+    }
+
+    /**
+     * Метод проверки книги по ID через API при выдаче.
+     * Обращение ограничено по времени и количеству одновременных запросов,
+     * при медленном ответе может быть отправлен повторный запрос другому экземпляру
+     *
+     * @param id - идентификатор книги
+     * @return Описание книги
+     */
+    public Mono<Book> validateBook(long id) {
+        return bookValidationFlight.execute(id, () -> bookGuard.call(attributes -> requestBook(id, attributes)));
+    }
+
+    private Mono<Book> requestBook(long id, Consumer<Map<String, Object>> attributes) {
+        return timer.timed(webClient.get()
+                .uri("http://BOOK-SERVICE/book/" + id)
+                .attributes(attributes)
+                .retrieve()
+                .bodyToMono(Book.class), BOOK_SERVICE, "get");
+    }
+
+    /**
+     * Метод получение описание читателя по ID через API.
+     * Одновременные запросы одного читателя выполняются одним обращением
+     *
+     * @param id - идентификатор читателя
+     * @return описание читателя
+     */
+    public Mono<Reader> fetchReader(long id) {
+        return readerFlight.execute(id, () -> requestReader(id, NO_ATTRIBUTES));
+    }
+
+    /**
+     * Метод проверки читателя по ID через API при выдаче.
+     * Обращение ограничено по времени и количеству одновременных запросов,
+     * при медленном ответе может быть отправлен повторный запрос другому экземпляру
+     *
+     * @param id - идентификатор читателя
+     * @return описание читателя
+     */
+    public Mono<Reader> validateReader(long id) {
+        return readerValidationFlight.execute(id, () -> readerGuard.call(attributes -> requestReader(id, attributes)));
+    }
+
+    private Mono<Reader> requestReader(long id, Consumer<Map<String, Object>> attributes) {
+        return timer.timed(webClient.get()
+                .uri("http://READER-SERVICE/reader/" + id)
+                .attributes(attributes)
+                .retrieve()
+                .bodyToMono(Reader.class), READER_SERVICE, "get");
+    }
+
+    /**
+     * Метод пакетного получения книг по списку ID через API.
+     * Идентификаторы разбиваются на части размером не более {@link RemoteProperties#getBatchSize()},
+     * части запрашиваются одновременно, но не более {@link RemoteProperties#getConcurrency()} за раз
+     *
+     * @param ids - идентификаторы книг
+     * @return найденные книги по идентификатору
+     */
+    public Mono<Map<Long, Book>> fetchBooks(Collection<Long> ids) {
+        return Flux.fromIterable(partition(ids))
+                .flatMap(chunk -> timer.timed(webClient.get()
+                                .uri("http://BOOK-SERVICE/book?ids=" + joinIds(chunk))
+                                .retrieve()
+                                .bodyToMono(BOOK_LIST), BOOK_SERVICE, "batch"),
+                        remoteProperties.getConcurrency())
+                .flatMapIterable(books -> books)
+                .collectMap(Book::getId);
+    }
+
+    /**
+     * Метод пакетного получения читателей по списку ID через API.
+     * Идентификаторы разбиваются на части размером не более {@link RemoteProperties#getBatchSize()},
+     * части запрашиваются одновременно, но не более {@link RemoteProperties#getConcurrency()} за раз
+     *
+     * @param ids - идентификаторы читателей
+     * @return найденные читатели по идентификатору
+     */
+    public Mono<Map<Long, Reader>> fetchReaders(Collection<Long> ids) {
+        return Flux.fromIterable(partition(ids))
+                .flatMap(chunk -> timer.timed(webClient.post()
+                                .uri("http://READER-SERVICE/reader/batch")
+                                .bodyValue(chunk)
+                                .retrieve()
+                                .bodyToMono(READER_LIST), READER_SERVICE, "batch"),
+                        remoteProperties.getConcurrency())
+                .flatMapIterable(readers -> readers)
+                .collectMap(Reader::getId);
+    }
+
+    /**
+     * Метод чтения журнала событий справочника книг
+     *
+     * @param after - номер последнего обработанного события
+     * @param limit - максимальное количество событий
+     * @return события после заданного номера
+     */
+    public Mono<CatalogEventBatch<Book>> fetchBookEvents(long after, int limit) {
+        return timer.timed(webClient.get()
+                .uri("http://BOOK-SERVICE/book/events?after=" + after + "&limit=" + limit)
+                .retrieve()
+                .bodyToMono(BOOK_EVENTS), BOOK_SERVICE, "events");
+    }
+
+    /**
+     * Метод чтения журнала событий справочника читателей
+     *
+     * @param after - номер последнего обработанного события
+     * @param limit - максимальное количество событий
+     * @return события после заданного номера
+     */
+    public Mono<CatalogEventBatch<Reader>> fetchReaderEvents(long after, int limit) {
+        return timer.timed(webClient.get()
+                .uri("http://READER-SERVICE/reader/events?after=" + after + "&limit=" + limit)
+                .retrieve()
+                .bodyToMono(READER_EVENTS), READER_SERVICE, "events");
+    }
+
+    /**
+     * Метод постраничного получения книг по курсору
+     *
+     * @param after - идентификатор последней книги предыдущей страницы, null для первой страницы
+     * @param size  - размер страницы
+     * @return страница книг, пустая при отсутствии книг
+     */
+    public Mono<CursorPage<Book>> fetchBookPage(Long after, int size) {
+        return timer.timed(webClient.get()
+                .uri("http://BOOK-SERVICE/book?size=" + size + (after == null ? "" : "&after=" + after))
+                .retrieve()
+                .bodyToMono(BOOK_PAGE)
+                .onErrorResume(WebClientResponseException.NotFound.class,
+                        e -> Mono.just(new CursorPage<>(List.of(), null))), BOOK_SERVICE, "page");
+    }
+
+    /**
+     * Метод постраничного получения читателей по курсору
+     *
+     * @param after - идентификатор последнего читателя предыдущей страницы, null для первой страницы
+     * @param size  - размер страницы
+     * @return страница читателей, пустая при отсутствии читателей
+     */
+    public Mono<CursorPage<Reader>> fetchReaderPage(Long after, int size) {
+        return timer.timed(webClient.get()
+                .uri("http://READER-SERVICE/reader?size=" + size + (after == null ? "" : "&after=" + after))
+                .retrieve()
+                .bodyToMono(READER_PAGE)
+                .onErrorResume(WebClientResponseException.NotFound.class,
+                        e -> Mono.just(new CursorPage<>(List.of(), null))), READER_SERVICE, "page");
+    }
+
+    /**
+     * Метод разбивает идентификаторы на части для пакетных запросов
+     */
+    private List<List<Long>> partition(Collection<Long> ids) {
+        List<Long> source = new ArrayList<>(ids);
+        int size = Math.max(1, remoteProperties.getBatchSize());
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < source.size(); from += size) {
+            chunks.add(source.subList(from, Math.min(from + size, source.size())));
+        }
+        return chunks;
+    }
+
+    private static String joinIds(List<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,113 @@
+package ru.fsv67.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+import ru.fsv67.NearCacheProperties;
+import ru.fsv67.models.NearCacheStats;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Класс описывает ограниченный по размеру локальный кэш сущностей удаленного сервиса по идентификатору.
+ * <p>
+ * Запись старше ttl отдается сразу, а ее обновление выполняется в фоне. Если удаленный сервис
+ * недоступен, устаревшая запись продолжает отдаваться до истечения ttl + staleTtl
+ *
+ * @param <V> тип кэшируемой сущности
+ */
+public class NearCache<V> {
+    private final String name;
+    private final AsyncLoadingCache<Long, V> cache;
+
+    public NearCache(String name, NearCacheProperties properties,
+                     Function<Long, Mono<V>> loader,
+                     Function<Set<Long>, Mono<Map<Long, V>>> bulkLoader) {
+        this.name = name;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .refreshAfterWrite(properties.getTtl())
+                .expireAfterWrite(properties.getTtl().plus(properties.getStaleTtl()))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<? extends V> asyncLoad(Long key, Executor executor) {
+                        return loader.apply(key).toFuture();
+                    }
+
+                    @Override
+                    public CompletableFuture<? extends Map<? extends Long, ? extends V>> asyncLoadAll(
+                            Set<? extends Long> keys, Executor executor) {
+                        return bulkLoader.apply(Set.copyOf(keys)).toFuture();
+                    }
+                });
+    }
+
+    /**
+     * Метод получения сущности по идентификатору из кэша либо из удаленного сервиса
+     *
+     * @param id идентификатор сущности
+     * @return сущность, либо пустой результат, если сущность не найдена
+     */
+    public Mono<V> get(long id) {
+        return Mono.fromFuture(cache.get(id), true);
+    }
+
+    /**
+     * Метод пакетного получения сущностей. Отсутствующие в кэше сущности загружаются одним пакетом.
+     * Если удаленный сервис недоступен, возвращаются только имеющиеся в кэше сущности
+     *
+     * @param ids идентификаторы сущностей
+     * @return найденные сущности по идентификатору
+     */
+    public Mono<Map<Long, V>> getAll(Collection<Long> ids) {
+        return Mono.fromFuture(cache.getAll(ids), true)
+                .onErrorResume(e -> Mono.just(cache.synchronous().getAllPresent(ids)));
+    }
+
+    /**
+     * Метод удаления сущности из кэша
+     *
+     * @param id идентификатор сущности
+     */
+    public void invalidate(long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    /**
+     * Метод очистки кэша
+     */
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Метод публикации статистики кэша в метриках cache.gets, cache.size, cache.evictions с тегом cache
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public void bindTo(MeterRegistry meterRegistry) {
+        new CaffeineCacheMetrics<>(cache.synchronous(), name, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Метод получения статистики обращений к кэшу
+     *
+     * @return количество попаданий, промахов и загрузок
+     */
+    public NearCacheStats stats() {
+        CacheStats stats = cache.synchronous().stats();
+        return new NearCacheStats(name, cache.synchronous().estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.hitRate(), stats.loadFailureCount(), stats.evictionCount());
+    }
+}
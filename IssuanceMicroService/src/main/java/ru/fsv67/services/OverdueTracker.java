@@ -0,0 +1,106 @@
+package ru.fsv67.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.fsv67.CursorPage;
+import ru.fsv67.Issuance;
+import ru.fsv67.OverdueProperties;
+import ru.fsv67.PageProperties;
+import ru.fsv67.models.OverdueLoan;
+import ru.fsv67.repositories.IssuanceRepository;
+import ru.fsv67.repositories.OverdueLoanRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Класс описывает отслеживание просроченных выдач.
+ * Открытые выдачи просматриваются в порядке даты выдачи, позиция последней проверенной выдачи
+ * запоминается, и при следующей проверке читаются только выдачи, пересекшие срок с прошлой проверки.
+ * Поэтому стоимость проверки пропорциональна количеству новых просроченных выдач, а не размеру таблицы.
+ * После запуска сервиса позиция восстанавливается по самой поздней сохраненной отметке: отметки закрытых
+ * выдач удаляются, но открытая выдача после этой позиции не может быть уже отмечена, иначе ее отметка
+ * была бы позже. Если отметок нет, первая проверка отмечает все уже просроченные выдачи
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(OverdueProperties.class)
+public class OverdueTracker {
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OverdueProperties properties;
+    private final PageProperties pageProperties;
+    private final IssuanceRepository issuanceRepository;
+    private final OverdueLoanRepository overdueLoanRepository;
+    private LocalDateTime watermarkAt;
+    private long watermarkId;
+
+    public OverdueTracker(OverdueProperties properties, PageProperties pageProperties,
+                          IssuanceRepository issuanceRepository, OverdueLoanRepository overdueLoanRepository) {
+        this.properties = properties;
+        this.pageProperties = pageProperties;
+        this.issuanceRepository = issuanceRepository;
+        this.overdueLoanRepository = overdueLoanRepository;
+    }
+
+    /**
+     * Метод проверки выдач, пересекших срок с прошлой проверки
+     */
+    @Scheduled(fixedDelayString = "${application.overdue.tick-interval:60000}")
+    void tick() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (watermarkAt == null) {
+            restoreWatermark();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.minus(properties.getLoanPeriod());
+        long flagged = 0;
+        List<Issuance> batch;
+        do {
+            batch = issuanceRepository.findOpenIssuedAfter(
+                    watermarkAt, watermarkId, threshold, Limit.of(properties.getBatchSize())
+            );
+            if (batch.isEmpty()) {
+                break;
+            }
+            overdueLoanRepository.saveAll(batch.stream()
+                    .map(issuance -> new OverdueLoan(issuance.getId(), issuance.getBookId(),
+                            issuance.getReaderId(), issuance.getIssuance_at(), now))
+                    .toList());
+            Issuance last = batch.get(batch.size() - 1);
+            watermarkAt = last.getIssuance_at();
+            watermarkId = last.getId();
+            flagged += batch.size();
+        } while (batch.size() == properties.getBatchSize());
+        if (flagged > 0) {
+            log.info("Отмечено просроченных выдач: {}, выданы не позже {}", flagged, watermarkAt);
+        }
+    }
+
+    private void restoreWatermark() {
+        overdueLoanRepository.findFirstByOrderByIssuanceAtDescIssuanceIdDesc().ifPresentOrElse(last -> {
+            watermarkAt = last.getIssuanceAt();
+            watermarkId = last.getIssuanceId();
+        }, () -> watermarkAt = START);
+    }
+
+    /**
+     * Метод постраничного получения открытых просроченных выдач
+     *
+     * @param after идентификатор последней выдачи предыдущей страницы, отсутствует для первой страницы
+     * @param size  размер страницы, при отсутствии используется размер по умолчанию
+     * @return страница просроченных выдач в порядке возрастания идентификатора
+     */
+    public CursorPage<OverdueLoan> getOverduePage(Long after, Integer size) {
+        int pageSize = pageProperties.resolveSize(size);
+        List<OverdueLoan> list = overdueLoanRepository.findOpenAfter(
+                after == null ? 0 : after, Limit.of(pageSize + 1)
+        );
+        return CursorPage.of(list, pageSize, OverdueLoan::getIssuanceId);
+    }
+}
@@ -0,0 +1,198 @@
+package ru.fsv67.services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fsv67.Issuance;
+import ru.fsv67.ReaderProperties;
+import ru.fsv67.models.IssuanceBatchResult;
+import ru.fsv67.models.ReaderLoan;
+import ru.fsv67.repositories.IssuanceRepository;
+import ru.fsv67.repositories.OverdueLoanRepository;
+import ru.fsv67.repositories.ReaderLoanRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Класс описывает сохранение выдач с соблюдением лимита книг в одни руки.
+ * <p>
+ * Лимит проверяется условным обновлением счетчика открытых выдач читателя, поэтому одновременные
+ * выдачи одному читателю не превысят лимит, а выдачи разным читателям не ждут друг друга.
+ * Отсутствующий счетчик создается отдельной транзакцией до начала транзакции выдачи,
+ * поэтому выдача никогда не занимает два соединения пула одновременно
+ */
+@Service
+public class ReaderLoanService {
+    /**
+     * Количество блокировок создания счетчиков, счетчик читателя создается под блокировкой по его идентификатору
+     */
+    private static final int CREATE_LOCKS = 64;
+
+    private final ReentrantLock[] createLocks = new ReentrantLock[CREATE_LOCKS];
+    private final IssuanceRepository issuanceRepository;
+    private final ReaderLoanRepository readerLoanRepository;
+    private final OverdueLoanRepository overdueLoanRepository;
+    private final ReaderProperties maxIssuedBooks;
+    private final TransactionTemplate transaction;
+
+    public ReaderLoanService(IssuanceRepository issuanceRepository, ReaderLoanRepository readerLoanRepository,
+                             OverdueLoanRepository overdueLoanRepository, ReaderProperties maxIssuedBooks,
+                             PlatformTransactionManager transactionManager) {
+        this.issuanceRepository = issuanceRepository;
+        this.readerLoanRepository = readerLoanRepository;
+        this.overdueLoanRepository = overdueLoanRepository;
+        this.maxIssuedBooks = maxIssuedBooks;
+        this.transaction = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < createLocks.length; i++) {
+            createLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Метод сохраняет выдачу книги читателю, если читатель не превысил лимит книг
+     *
+     * @param bookId   идентификатор книги
+     * @param readerId идентификатор читателя
+     * @return сохраненная выдача
+     */
+    public Issuance issue(long bookId, long readerId) {
+        Issuance issuance = transaction.execute(status -> tryIssue(bookId, readerId));
+        if (issuance == null) {
+            createCounter(readerId);
+            issuance = transaction.execute(status -> tryIssue(bookId, readerId));
+        }
+        if (issuance == null) {
+            throw new IllegalStateException("Счетчик выдач читателя с ID = " + readerId + " не создан");
+        }
+        return issuance;
+    }
+
+    /**
+     * Выдача в текущей транзакции
+     *
+     * @return сохраненная выдача или null, если счетчик читателя еще не создан
+     */
+    private Issuance tryIssue(long bookId, long readerId) {
+        if (readerLoanRepository.acquire(readerId, maxIssuedBooks.getMaxAllowedBooks()) == 1) {
+            return issuanceRepository.save(new Issuance(bookId, readerId));
+        }
+        if (!readerLoanRepository.existsById(readerId)) {
+            return null;
+        }
+        throw new IllegalStateException(
+                "Читатель с ID = " + readerId + " превысил лимит книг в одни руки"
+        );
+    }
+
+    /**
+     * Метод сохраняет пакет выдач одной транзакцией с соблюдением лимита книг для каждого читателя
+     * с учетом всех запросов пакета. Запросы читателя принимаются по порядку, пока лимит не исчерпан.
+     * Счетчики читателей блокируются в порядке возрастания идентификатора, что исключает взаимные
+     * блокировки параллельных пакетов. Выдачи сохраняются пакетной вставкой.
+     * Отсутствующие счетчики читателей создаются до начала транзакции пакета
+     *
+     * @param pending запросы, прошедшие проверку книги и читателя
+     */
+    public void issueBatch(List<IssuanceBatchResult> pending) {
+        Map<Long, List<IssuanceBatchResult>> byReader = pending.stream()
+                .collect(Collectors.groupingBy(IssuanceBatchResult::getReaderId, TreeMap::new, Collectors.toList()));
+        Set<Long> missing = new TreeSet<>(byReader.keySet());
+        readerLoanRepository.findAllById(byReader.keySet()).forEach(loan -> missing.remove(loan.getReaderId()));
+        missing.forEach(this::createCounter);
+        transaction.executeWithoutResult(status -> issueBatch(byReader));
+    }
+
+    private void issueBatch(Map<Long, List<IssuanceBatchResult>> byReader) {
+        int max = maxIssuedBooks.getMaxAllowedBooks();
+        List<IssuanceBatchResult> accepted = new ArrayList<>();
+        List<Issuance> issuances = new ArrayList<>();
+        byReader.forEach((readerId, requests) -> {
+            ReaderLoan readerLoan = readerLoanRepository.findForUpdate(readerId).orElseThrow();
+            for (IssuanceBatchResult request : requests) {
+                if (readerLoan.getOpenCount() >= max) {
+                    request.reject(IssuanceBatchResult.Status.LIMIT_EXCEEDED,
+                            "Читатель с ID = " + readerId + " превысил лимит книг в одни руки");
+                    continue;
+                }
+                readerLoan.setOpenCount(readerLoan.getOpenCount() + 1);
+                accepted.add(request);
+                issuances.add(new Issuance(request.getBookId(), readerId));
+            }
+        });
+        issuanceRepository.saveAll(issuances);
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).accept(issuances.get(i));
+        }
+    }
+
+    /**
+     * Метод закрывает выдачу, уменьшает счетчик открытых выдач читателя и снимает отметку о просрочке.
+     * Выдача закрывается условным обновлением, поэтому при одновременных возвратах
+     * одной выдачи счетчик уменьшается только один раз
+     *
+     * @param id идентификатор выдачи
+     * @return закрытая выдача
+     */
+    @Transactional
+    public Issuance close(long id) {
+        int closed = issuanceRepository.close(id, LocalDateTime.now());
+        Issuance issuance = issuanceRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("Выдача с ID = " + id + " не найдена"));
+        if (closed == 0) {
+            throw new NoSuchElementException("Выдача с ID = " + id + " закрыта");
+        }
+        readerLoanRepository.release(issuance.getReaderId());
+        overdueLoanRepository.deleteAllByIdInBatch(List.of(id));
+        return issuance;
+    }
+
+    /**
+     * Метод закрывает открытые выдачи из списка одной транзакцией.
+     * Открытые выдачи блокируются, закрываются одним оператором, счетчики читателей
+     * уменьшаются по количеству закрытых выдач каждого читателя, отметки о просрочке снимаются
+     *
+     * @param ids идентификаторы выдач
+     * @return идентификаторы закрытых выдач
+     */
+    @Transactional
+    public List<Long> closeAll(Collection<Long> ids) {
+        List<Issuance> open = issuanceRepository.findOpenForUpdate(ids);
+        if (open.isEmpty()) {
+            return List.of();
+        }
+        List<Long> closed = open.stream().map(Issuance::getId).toList();
+        issuanceRepository.closeAll(closed, LocalDateTime.now());
+        open.stream()
+                .collect(Collectors.groupingBy(Issuance::getReaderId, TreeMap::new, Collectors.counting()))
+                .forEach((readerId, count) -> readerLoanRepository.release(readerId, count.intValue()));
+        overdueLoanRepository.deleteAllByIdInBatch(closed);
+        return closed;
+    }
+
+    /**
+     * Счетчик создается в отдельной транзакции по текущему количеству открытых выдач.
+     * Если счетчик уже создан другим запросом, вставка пропускается и используется существующий.
+     * Транзакции создания счетчика одного читателя выполняются по очереди под блокировкой, поэтому
+     * вставка не встречает незавершенную вставку того же счетчика: БД встроена и принадлежит экземпляру сервиса
+     */
+    private void createCounter(long readerId) {
+        ReentrantLock lock = createLocks[(int) Math.floorMod(readerId, (long) CREATE_LOCKS)];
+        lock.lock();
+        try {
+            transaction.executeWithoutResult(status -> readerLoanRepository.create(readerId));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ru.fsv67.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Класс замеряет время обращений к удаленным сервисам.
+ * Таймер library.remote.requests публикует гистограмму с тегами target, operation и outcome
+ */
+public class RemoteCallTimer {
+    public static final String METRIC = "library.remote.requests";
+
+    private final MeterRegistry meterRegistry;
+
+    public RemoteCallTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Метод добавляет замер времени к обращению. Время отсчитывается от подписки на результат
+     *
+     * @param mono      обращение к удаленному сервису
+     * @param target    имя удаленного сервиса
+     * @param operation вид обращения
+     * @return обращение с замером времени
+     */
+    public <T> Mono<T> timed(Mono<T> mono, String target, String operation) {
+        return Mono.defer(() -> {
+            long started = System.nanoTime();
+            return mono
+                    .doOnError(e -> record(target, operation, outcome(e), started))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.ON_COMPLETE) {
+                            record(target, operation, "success", started);
+                        } else if (signal == SignalType.CANCEL) {
+                            record(target, operation, "cancelled", started);
+                        }
+                    });
+        });
+    }
+
+    private void record(String target, String operation, String outcome, long started) {
+        Timer.builder(METRIC)
+                .description("Обращения к удаленным сервисам")
+                .tag("target", target)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof WebClientResponseException.NotFound) {
+            return "not_found";
+        }
+        if (e instanceof WebClientResponseException responseException) {
+            return responseException.getStatusCode().is4xxClientError() ? "client_error" : "server_error";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,74 @@
+package ru.fsv67.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Класс объединяет одновременные одинаковые обращения к удаленному сервису.
+ * Пока обращение по ключу выполняется, остальные подписчики получают его результат без нового запроса.
+ * Отмена подписки одним из подписчиков не отменяет общее обращение.
+ * Счетчик library.remote.singleflight с тегом role показывает количество выполненных (leader)
+ * и объединенных (coalesced) обращений для сервиса target и вида обращения operation
+ *
+ * @param <K> ключ обращения
+ * @param <V> результат обращения
+ */
+public class SingleFlight<K, V> {
+    public static final String METRIC = "library.remote.singleflight";
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter coalesced;
+
+    public SingleFlight(String target, String operation, MeterRegistry meterRegistry) {
+        this.leaders = counter(target, operation, "leader", meterRegistry);
+        this.coalesced = counter(target, operation, "coalesced", meterRegistry);
+        Gauge.builder(METRIC + ".inflight", inFlight, Map::size)
+                .description("Количество выполняемых обращений к удаленному сервису")
+                .tag("target", target)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Counter counter(String target, String operation, String role, MeterRegistry meterRegistry) {
+        return Counter.builder(METRIC)
+                .description("Обращения к удаленному сервису с объединением одинаковых запросов")
+                .tag("target", target)
+                .tag("operation", operation)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Метод выполнения обращения с объединением одновременных запросов по ключу
+     *
+     * @param key  - ключ обращения
+     * @param call - обращение к удаленному сервису, выполняется только при отсутствии такого же обращения
+     * @return результат обращения, пустой результат при отсутствии значения
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> existing = inFlight.get(key);
+            if (existing == null) {
+                CompletableFuture<V> created = new CompletableFuture<>();
+                existing = inFlight.putIfAbsent(key, created);
+                if (existing == null) {
+                    leaders.increment();
+                    created.whenComplete((value, error) -> inFlight.remove(key, created));
+                    Mono.defer(call).subscribe(created::complete, created::completeExceptionally,
+                            () -> created.complete(null));
+                    return Mono.fromFuture(created, true);
+                }
+            }
+            coalesced.increment();
+            return Mono.fromFuture(existing, true);
+        });
+    }
+}
@@ -0,0 +1,56 @@
+-- Схема хранилища выдач для профиля persistent.
+-- Выполняется при каждом запуске, существующие объекты не изменяются, поэтому запуск не зависит от объема данных.
+-- Шаг последовательности совпадает с размером блока идентификаторов Hibernate по умолчанию
+CREATE SEQUENCE IF NOT EXISTS issuance_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS issuance (
+    id          BIGINT NOT NULL PRIMARY KEY,
+    book_id     BIGINT,
+    reader_id   BIGINT,
+    issuance_at TIMESTAMP(6),
+    returned_at TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_issuance_reader_returned ON issuance (reader_id, returned_at);
+CREATE INDEX IF NOT EXISTS idx_issuance_book ON issuance (book_id);
+CREATE INDEX IF NOT EXISTS idx_issuance_returned_issued ON issuance (returned_at, issuance_at);
+
+CREATE TABLE IF NOT EXISTS reader_loan (
+    reader_id  BIGINT  NOT NULL PRIMARY KEY,
+    open_count INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS overdue_loan (
+    issuance_id BIGINT NOT NULL PRIMARY KEY,
+    book_id     BIGINT,
+    reader_id   BIGINT,
+    issuance_at TIMESTAMP(6),
+    flagged_at  TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_overdue_loan_issued ON overdue_loan (issuance_at, issuance_id);
+
+-- Локальная копия справочников книг и читателей
+CREATE TABLE IF NOT EXISTS book_title (
+    book_id BIGINT NOT NULL PRIMARY KEY,
+    title   VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS reader_name (
+    reader_id  BIGINT NOT NULL PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255)
+);
+
+-- Общие сущности LibraryModels входят в единицу хранения каждого сервиса и сверяются при запуске,
+-- в этом сервисе их таблицы остаются пустыми
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 100;
+CREATE TABLE IF NOT EXISTS book (
+    id    BIGINT NOT NULL PRIMARY KEY,
+    title VARCHAR(255)
+);
+
+CREATE SEQUENCE IF NOT EXISTS reader_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS reader (
+    id         BIGINT NOT NULL PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255)
+);
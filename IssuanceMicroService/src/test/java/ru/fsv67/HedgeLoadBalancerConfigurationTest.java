@@ -0,0 +1,106 @@
+package ru.fsv67;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import ru.fsv67.services.DependencyGuard;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка выбора экземпляра балансировщиком по атрибутам запроса {@link DependencyGuard}
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:hedge-load-balancer-test",
+                "eureka.client.enabled=false",
+                "application.seed.mode=disabled",
+                "application.catalog.enabled=false",
+                "application.overdue.enabled=false"
+        }
+)
+class HedgeLoadBalancerConfigurationTest {
+    private static final HttpServer FIRST = server("first");
+    private static final HttpServer SECOND = server("second");
+
+    @Autowired
+    private WebClient webClient;
+
+    @DynamicPropertySource
+    static void instances(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.BOOK-SERVICE[0].uri", () -> uri(FIRST));
+        registry.add("spring.cloud.discovery.client.simple.instances.BOOK-SERVICE[1].uri", () -> uri(SECOND));
+    }
+
+    @AfterAll
+    static void stop() {
+        FIRST.stop(0);
+        SECOND.stop(0);
+    }
+
+    /**
+     * Основной запрос получает адрес выбранного экземпляра, повторный запрос с этим адресом
+     * направляется другому экземпляру. Между ними выполняется запрос без атрибутов, после которого
+     * балансировщик по кругу выбрал бы экземпляр основного запроса
+     */
+    @Test
+    void hedgeExcludesInstanceOfPrimaryRequest() {
+        for (int i = 0; i < 10; i++) {
+            AtomicReference<String> selected = new AtomicReference<>();
+            String primary = request(attributes -> attributes.put(DependencyGuard.SELECTED_ATTRIBUTE, selected));
+            assertThat(selected.get()).isEqualTo(address(primary.equals("first") ? FIRST : SECOND));
+            request(attributes -> {
+            });
+
+            String hedge = request(attributes -> attributes.put(DependencyGuard.EXCLUDED_ATTRIBUTE, selected.get()));
+            assertThat(hedge).isNotEqualTo(primary);
+        }
+    }
+
+    private String request(Consumer<Map<String, Object>> attributes) {
+        return webClient.get()
+                .uri("http://BOOK-SERVICE/name")
+                .attributes(attributes)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+    }
+
+    private static HttpServer server(String name) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/name", exchange -> {
+                byte[] body = name.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String address(HttpServer server) {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    private static String uri(HttpServer server) {
+        return "http://" + address(server);
+    }
+}
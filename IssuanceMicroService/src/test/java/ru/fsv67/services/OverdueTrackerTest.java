@@ -0,0 +1,77 @@
+package ru.fsv67.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.fsv67.OverdueProperties;
+import ru.fsv67.PageProperties;
+import ru.fsv67.models.OverdueLoan;
+import ru.fsv67.repositories.IssuanceRepository;
+import ru.fsv67.repositories.OverdueLoanRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка отметок о просрочке при повторном запуске отслеживания
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:overdue-tracker-test",
+                "eureka.client.enabled=false",
+                "application.seed.mode=disabled",
+                "application.catalog.enabled=false",
+                "application.overdue.enabled=false"
+        }
+)
+class OverdueTrackerTest {
+    @Autowired
+    private PageProperties pageProperties;
+    @Autowired
+    private IssuanceRepository issuanceRepository;
+    @Autowired
+    private OverdueLoanRepository overdueLoanRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Новый экземпляр отслеживания, как после перезапуска сервиса, продолжает с последней отметки
+     * и не вставляет отметки повторно, даже если самая поздняя выдача уже возвращена
+     */
+    @Test
+    void restartedTrackerContinuesAfterLatestFlag() {
+        LocalDateTime overdue = LocalDateTime.now().minusDays(30);
+        insertOpenIssuance(1_000_001, overdue.minusDays(2));
+        insertOpenIssuance(1_000_002, overdue.minusDays(1));
+        insertOpenIssuance(1_000_003, overdue);
+        insertOpenIssuance(1_000_004, LocalDateTime.now());
+
+        newTracker().tick();
+        assertThat(overdueLoanRepository.findAll()).extracting(OverdueLoan::getIssuanceId)
+                .containsExactlyInAnyOrder(1_000_001L, 1_000_002L, 1_000_003L);
+
+        jdbcTemplate.update("UPDATE issuance SET returned_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now()), 1_000_003L);
+        overdueLoanRepository.deleteById(1_000_003L);
+        insertOpenIssuance(1_000_005, overdue.plusHours(1));
+
+        newTracker().tick();
+        assertThat(overdueLoanRepository.findAll()).extracting(OverdueLoan::getIssuanceId)
+                .containsExactlyInAnyOrder(1_000_001L, 1_000_002L, 1_000_005L);
+    }
+
+    private OverdueTracker newTracker() {
+        OverdueProperties properties = new OverdueProperties();
+        properties.setBatchSize(2);
+        return new OverdueTracker(properties, pageProperties, issuanceRepository, overdueLoanRepository);
+    }
+
+    private void insertOpenIssuance(long id, LocalDateTime issuanceAt) {
+        jdbcTemplate.update("INSERT INTO issuance (id, book_id, reader_id, issuance_at) VALUES (?, ?, ?, ?)",
+                id, id, id, Timestamp.valueOf(issuanceAt));
+    }
+}
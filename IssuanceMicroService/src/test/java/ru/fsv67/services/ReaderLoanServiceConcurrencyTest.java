@@ -0,0 +1,140 @@
+package ru.fsv67.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.fsv67.ReaderProperties;
+import ru.fsv67.repositories.IssuanceRepository;
+import ru.fsv67.repositories.ReaderLoanRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка лимита книг в одни руки при одновременных выдачах
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "spring.datasource.url=jdbc:h2:mem:reader-loan-test",
+                "spring.datasource.hikari.maximum-pool-size=4",
+                "spring.datasource.hikari.connection-timeout=5000",
+                "eureka.client.enabled=false",
+                "application.seed.mode=disabled",
+                "application.catalog.enabled=false",
+                "application.overdue.enabled=false",
+                "application.reader.max-allowed-books=3"
+        }
+)
+class ReaderLoanServiceConcurrencyTest {
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ReaderLoanService readerLoanService;
+    @Autowired
+    private IssuanceRepository issuanceRepository;
+    @Autowired
+    private ReaderLoanRepository readerLoanRepository;
+    @Autowired
+    private ReaderProperties readerProperties;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Одновременные первые выдачи одному читателю: счетчик еще не создан, потоков больше, чем соединений в пуле
+     */
+    @Test
+    void concurrentIssuesToOneReaderDoNotExceedLimit() throws Exception {
+        long readerId = 1001;
+        int max = readerProperties.getMaxAllowedBooks();
+        AtomicInteger issued = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                long bookId = i + 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        readerLoanService.issue(bookId, readerId);
+                        issued.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(issued.get()).isEqualTo(max);
+        assertThat(rejected.get()).isEqualTo(THREADS - max);
+        assertThat(issuanceRepository.countIssuanceByReaderId(readerId)).isEqualTo(max);
+        assertThat(readerLoanRepository.findById(readerId).orElseThrow().getOpenCount()).isEqualTo(max);
+    }
+
+    /**
+     * Повторное создание существующего счетчика пропускается без ошибки целостности и не меняет его значение
+     */
+    @Test
+    void createSkipsExistingCounter() {
+        long readerId = 3001;
+        readerLoanService.issue(1, readerId);
+
+        Integer created = new TransactionTemplate(transactionManager)
+                .execute(status -> readerLoanRepository.create(readerId));
+
+        assertThat(created).isZero();
+        assertThat(readerLoanRepository.findById(readerId).orElseThrow().getOpenCount()).isEqualTo(1);
+    }
+
+    /**
+     * Пока счетчик одного читателя заблокирован транзакцией, выдача другому читателю не ждет ее завершения
+     */
+    @Test
+    void issuesToDifferentReadersDoNotWaitForEachOther() throws Exception {
+        long lockedReader = 2001;
+        long otherReader = 2002;
+        readerLoanService.issue(1, lockedReader);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                readerLoanRepository.findForUpdate(lockedReader).orElseThrow();
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            CompletableFuture<Long> other = CompletableFuture.supplyAsync(
+                    () -> readerLoanService.issue(2, otherReader).getReaderId());
+            assertThat(other.get(2, TimeUnit.SECONDS)).isEqualTo(otherReader);
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
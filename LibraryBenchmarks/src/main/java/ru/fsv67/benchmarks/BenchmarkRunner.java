@@ -0,0 +1,28 @@
+package ru.fsv67.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск замеров библиотеки с сохранением результатов в JSON для сравнения между версиями.
+ * <p>
+ * Аргументы командной строки JMH имеют приоритет, например {@code -rff other.json} или {@code -f 1 Serialization}
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include(BenchmarkRunner.class.getPackageName() + ".*");
+        }
+        Options options = builder
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .parent(commandLine)
+                .build();
+        new Runner(options).run();
+    }
+}
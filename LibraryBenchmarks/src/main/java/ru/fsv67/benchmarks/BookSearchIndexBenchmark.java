@@ -0,0 +1,138 @@
+package ru.fsv67.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+import ru.fsv67.Book;
+import ru.fsv67.SearchProperties;
+import ru.fsv67.models.BookSearchPage;
+import ru.fsv67.repositories.BookRepository;
+import ru.fsv67.services.BookSearchIndex;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер поиска книг по словам названия {@link BookSearchIndex#search(String, Long, int)} на синтетическом каталоге.
+ * Слова названий выбираются из словаря с сильно неравномерной частотой: самое частое слово встречается
+ * примерно в каждом седьмом названии, самое редкое - в единицах названий на миллион книг
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchIndexBenchmark {
+    private static final int VOCABULARY = 20_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int LAST_PAGE = new SearchProperties().getMaxResults() - PAGE_SIZE;
+
+    /**
+     * Количество книг в каталоге
+     */
+    @Param({"100000", "1000000"})
+    private int books;
+
+    private List<Book> catalog;
+    private BookSearchIndex index;
+    private String common;
+    private String rare;
+    private String prefix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = word(random);
+        }
+        catalog = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            StringJoiner title = new StringJoiner(" ");
+            for (int words = 2 + random.nextInt(5); words > 0; words--) {
+                title.add(vocabulary[(int) (VOCABULARY * Math.pow(random.nextDouble(), 3))]);
+            }
+            Book book = new Book(title.toString());
+            book.setId(i + 1L);
+            catalog.add(book);
+        }
+        index = build();
+        common = vocabulary[0];
+        rare = vocabulary[VOCABULARY - 1];
+        prefix = common.substring(0, new SearchProperties().getMinPrefixLength());
+    }
+
+    /**
+     * Частое слово вместе с редким: перебираются только книги редкого слова
+     */
+    @Benchmark
+    public BookSearchPage commonAndRareWord() {
+        return index.search(common + " " + rare, null, PAGE_SIZE);
+    }
+
+    /**
+     * Частое слово: читается только начало списка книг слова
+     */
+    @Benchmark
+    public BookSearchPage commonWord() {
+        return index.search(common, null, PAGE_SIZE);
+    }
+
+    /**
+     * Последняя доступная страница частого слова
+     */
+    @Benchmark
+    public BookSearchPage commonWordLastPage() {
+        return index.search(common, (long) LAST_PAGE, PAGE_SIZE);
+    }
+
+    /**
+     * Начало слова минимальной длины, под которое подходит много слов словаря
+     */
+    @Benchmark
+    public BookSearchPage shortPrefix() {
+        return index.search(prefix, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BookSearchIndex buildIndex() {
+        return build();
+    }
+
+    private BookSearchIndex build() {
+        BookSearchIndex searchIndex = new BookSearchIndex(repository(catalog), new SearchProperties());
+        searchIndex.build();
+        return searchIndex;
+    }
+
+    /**
+     * Заглушка репозитория: книги каталога с идентификаторами 1..n отдаются страницами по курсору
+     */
+    private static BookRepository repository(List<Book> catalog) {
+        return (BookRepository) Proxy.newProxyInstance(BookRepository.class.getClassLoader(),
+                new Class<?>[]{BookRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findByIdGreaterThanOrderByIdAsc")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int from = Math.toIntExact((long) args[0]);
+                    int max = ((Limit) args[1]).max();
+                    return catalog.subList(Math.min(from, catalog.size()), Math.min(catalog.size(), from + max));
+                });
+    }
+
+    private static String word(Random random) {
+        char[] letters = new char[4 + random.nextInt(6)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
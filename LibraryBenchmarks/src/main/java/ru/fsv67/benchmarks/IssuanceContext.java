@@ -0,0 +1,45 @@
+package ru.fsv67.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import ru.fsv67.BookMicroService;
+import ru.fsv67.IssuanceMicroService;
+
+import java.io.IOException;
+
+/**
+ * Запуск контекста сервиса выдачи без веб-сервера для замеров.
+ * <p>
+ * Модуль замеров подключает и сервис книг, а сканирование компонентов сервиса выдачи охватывает весь пакет
+ * ru.fsv67, поэтому компоненты, загруженные из модуля сервиса книг, исключаются из сканирования.
+ * Репозиторий книг остается в контексте: он работает с общей сущностью {@code Book} и не используется
+ */
+public final class IssuanceContext {
+    private IssuanceContext() {
+    }
+
+    /**
+     * @param sources дополнительные классы конфигурации контекста
+     */
+    public static SpringApplicationBuilder builder(Class<?>... sources) {
+        return new SpringApplicationBuilder(IssuanceMicroService.class)
+                .sources(sources)
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("bookServiceExcludeFilter", new BookServiceExcludeFilter()));
+    }
+
+    private static class BookServiceExcludeFilter extends TypeExcludeFilter {
+        private final String bookModule =
+                BookMicroService.class.getProtectionDomain().getCodeSource().getLocation().toString();
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory)
+                throws IOException {
+            return metadataReader.getResource().getURL().toString().contains(bookModule);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ru.fsv67.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import ru.fsv67.CatalogProperties;
+import ru.fsv67.Issuance;
+import ru.fsv67.NearCacheProperties;
+import ru.fsv67.PageProperties;
+import ru.fsv67.ReaderProperties;
+import ru.fsv67.RemoteProperties;
+import ru.fsv67.models.IssuanceTransform;
+import ru.fsv67.services.CatalogReplica;
+import ru.fsv67.services.IssuanceService;
+import ru.fsv67.services.LibraryApiClient;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер обогащения выдачи описанием книги и читателя {@link IssuanceService#createIssuanceDTO(Issuance)}
+ * с заглушкой сервисов книг и читателей внутри процесса
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssuanceEnrichmentBenchmark {
+
+    /**
+     * Задержка ответа заглушки в миллисекундах
+     */
+    @Param({"0", "5"})
+    private int latencyMillis;
+
+    /**
+     * Использование локального кэша книг и читателей
+     */
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private IssuanceService issuanceService;
+    private Issuance[] issuances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        NearCacheProperties cacheProperties = new NearCacheProperties();
+        cacheProperties.setEnabled(cache);
+        RemoteProperties remoteProperties = new RemoteProperties();
+        LibraryApiClient libraryApiClient = new LibraryApiClient(remoteProperties, cacheProperties,
+                new SimpleMeterRegistry(), StubLibraryBackend.webClient(Duration.ofMillis(latencyMillis)));
+        CatalogProperties catalogProperties = new CatalogProperties();
+        catalogProperties.setEnabled(false);
+        issuanceService = new IssuanceService(null, new ReaderProperties(), remoteProperties, libraryApiClient,
+                null, new PageProperties(), new CatalogReplica(catalogProperties, libraryApiClient, null, null));
+
+        issuances = new Issuance[1024];
+        for (int i = 0; i < issuances.length; i++) {
+            Issuance issuance = new Issuance(i % 200 + 1, i % 50 + 1);
+            issuance.setId((long) i + 1);
+            issuances[i] = issuance;
+        }
+    }
+
+    @Benchmark
+    public IssuanceTransform createIssuanceDTO() {
+        return issuanceService.createIssuanceDTO(issuances[ThreadLocalRandom.current().nextInt(issuances.length)]);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.fsv67.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.fsv67.Issuance;
+import ru.fsv67.repositories.IssuanceRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер запросов {@link IssuanceRepository} на заполненной БД H2 в памяти.
+ * Контекст сервиса выдачи поднимается без веб-сервера и без регистрации в Eureka
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssuanceRepositoryBenchmark {
+
+    /**
+     * Количество выдач в БД
+     */
+    @Param({"10000", "100000"})
+    private int issuances;
+
+    private final int readers = 5_000;
+
+    private ConfigurableApplicationContext context;
+    private IssuanceRepository issuanceRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = IssuanceContext.builder()
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jmx.enabled=false",
+                        "eureka.client.enabled=false",
+                        "logging.level.root=WARN"
+                )
+                .run();
+        issuanceRepository = context.getBean(IssuanceRepository.class);
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(issuances);
+        for (int i = 0; i < issuances; i++) {
+            LocalDateTime issuanceAt = now.minusHours(random.nextInt(24 * 365));
+            Timestamp returnedAt = random.nextInt(10) < 7 ? Timestamp.valueOf(issuanceAt.plusDays(7)) : null;
+            rows.add(new Object[]{1_000_000L + i, random.nextInt(10_000) + 1L, random.nextInt(readers) + 1L,
+                    Timestamp.valueOf(issuanceAt), returnedAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO issuance (id, book_id, reader_id, issuance_at, returned_at) " +
+                "VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Issuance> findIssuanceByReaderId() {
+        return issuanceRepository.findIssuanceByReaderId(ThreadLocalRandom.current().nextInt(readers) + 1L);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Issuance> findAllOrderById() {
+        return issuanceRepository.findAllOrderById();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.fsv67.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.fsv67.Book;
+import ru.fsv67.Issuance;
+import ru.fsv67.Reader;
+import ru.fsv67.models.IssuanceTransform;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замер сериализации Jackson списков выдач, книг и читателей.
+ * Настройки ObjectMapper совпадают с настройками Spring Boot по умолчанию
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    /**
+     * Количество элементов в списке
+     */
+    @Param({"10", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<IssuanceTransform> issuances;
+    private List<Book> books;
+    private List<Reader> readers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        issuances = new ArrayList<>(size);
+        books = new ArrayList<>(size);
+        readers = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            Book book = new Book("Название книги номер " + i);
+            book.setId((long) i);
+            Reader reader = new Reader("Имя" + i, "Фамилия" + i);
+            reader.setId((long) i);
+            books.add(book);
+            readers.add(reader);
+
+            Issuance issuance = new Issuance(i, i);
+            IssuanceTransform issuanceTransform = new IssuanceTransform();
+            issuanceTransform.setId((long) i);
+            issuanceTransform.setBook(book);
+            issuanceTransform.setReader(reader);
+            issuanceTransform.setIssuance_at(issuance.getIssuance_at());
+            issuanceTransform.setReturned_at(i % 2 == 0 ? now : null);
+            issuances.add(issuanceTransform);
+        }
+    }
+
+    @Benchmark
+    public byte[] issuanceTransforms() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(issuances);
+    }
+
+    @Benchmark
+    public byte[] books() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] readers() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(readers);
+    }
+}
@@ -0,0 +1,36 @@
+package ru.fsv67.benchmarks;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Заглушка сервисов книг и читателей внутри процесса.
+ * Отвечает на GET /book/{id} и GET /reader/{id} без сети с заданной задержкой
+ */
+final class StubLibraryBackend {
+    private StubLibraryBackend() {
+    }
+
+    static WebClient webClient(Duration latency) {
+        ExchangeFunction exchange = request -> {
+            String path = request.url().getPath();
+            long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+            String body = path.startsWith("/book/")
+                    ? "{\"id\":" + id + ",\"title\":\"Книга " + id + "\"}"
+                    : "{\"id\":" + id + ",\"firstName\":\"Имя " + id + "\",\"lastName\":\"Фамилия " + id + "\"}";
+            Mono<ClientResponse> response = Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+            return latency.isZero() ? response : response.delayElement(latency);
+        };
+        return WebClient.builder().exchangeFunction(exchange).build();
+    }
+}
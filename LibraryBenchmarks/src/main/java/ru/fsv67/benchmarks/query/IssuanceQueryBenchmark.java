@@ -0,0 +1,153 @@
+package ru.fsv67.benchmarks.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.fsv67.benchmarks.IssuanceContext;
+import ru.fsv67.repositories.IssuanceRepository;
+
+import java.io.File;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.LongConsumer;
+
+/**
+ * Замер запросов открытых выдач читателя на большом объеме данных до и после создания индексов.
+ * <p>
+ * Запуск:
+ * <pre>
+ * mvn -pl LibraryBenchmarks -am install -DskipTests
+ * mvn -pl LibraryBenchmarks exec:java -Dexec.mainClass=ru.fsv67.benchmarks.query.IssuanceQueryBenchmark
+ * </pre>
+ * Поднимает контекст сервиса выдачи с профилем query-benchmark без веб-сервера и Eureka,
+ * добавляет {@link QueryBenchmarkProperties#getIssuances()} выдач, замеряет запросы без индексов выдачи,
+ * создает индексы, повторяет замер и записывает результат в {@link QueryBenchmarkProperties#getOutput()}.
+ * Класс не является компонентом и регистрируется только при запуске замера, поэтому в сервис выдачи не попадает
+ */
+@Slf4j
+@RequiredArgsConstructor
+@EnableConfigurationProperties(QueryBenchmarkProperties.class)
+public class IssuanceQueryBenchmark implements ApplicationRunner {
+    /**
+     * Индексы выдачи по имени: замер "до" выполняется без всех индексов сущности {@code Issuance},
+     * иначе запрос открытых выдач использует индекс по returned_at
+     */
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_issuance_reader_returned",
+            "CREATE INDEX idx_issuance_reader_returned ON issuance (reader_id, returned_at)",
+            "idx_issuance_book",
+            "CREATE INDEX idx_issuance_book ON issuance (book_id)",
+            "idx_issuance_returned_issued",
+            "CREATE INDEX idx_issuance_returned_issued ON issuance (returned_at, issuance_at)"
+    );
+
+    private final IssuanceRepository issuanceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final QueryBenchmarkProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public static void main(String[] args) {
+        ConfigurableApplicationContext context = IssuanceContext.builder(IssuanceQueryBenchmark.class)
+                .profiles("query-benchmark")
+                .run(args);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        seed();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("issuances", properties.getIssuances());
+        report.put("readers", properties.getReaders());
+        report.put("iterations", properties.getIterations());
+
+        for (String index : INDEXES.keySet()) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS " + index);
+        }
+        report.put("before", measureQueries());
+
+        long started = System.nanoTime();
+        for (String index : INDEXES.values()) {
+            jdbcTemplate.execute(index);
+        }
+        report.put("indexCreationMillis", (System.nanoTime() - started) / 1_000_000);
+        report.put("after", measureQueries());
+
+        File output = new File(properties.getOutput());
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValue(output, report);
+        log.info("Результат замера запросов выдачи записан в {}:\n{}", output.getAbsolutePath(),
+                objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+
+    /**
+     * Выдачи добавляются пакетной вставкой JDBC с идентификаторами после уже существующих
+     */
+    private void seed() {
+        Random random = new Random(properties.getSeed());
+        long firstId = Optional.ofNullable(jdbcTemplate.queryForObject("SELECT MAX(id) FROM issuance", Long.class))
+                .orElse(0L) + 1;
+        LocalDateTime now = LocalDateTime.now();
+        int batchSize = 10_000;
+        long started = System.nanoTime();
+        for (int from = 0; from < properties.getIssuances(); from += batchSize) {
+            List<Object[]> rows = new ArrayList<>(batchSize);
+            for (int i = from; i < Math.min(from + batchSize, properties.getIssuances()); i++) {
+                LocalDateTime issuanceAt = now.minusMinutes(random.nextInt(60 * 24 * 365));
+                Timestamp returnedAt = random.nextDouble() < properties.getReturnedRatio()
+                        ? Timestamp.valueOf(issuanceAt.plusDays(random.nextInt(30) + 1)) : null;
+                rows.add(new Object[]{firstId + i, random.nextInt(properties.getBooks()) + 1L,
+                        random.nextInt(properties.getReaders()) + 1L, Timestamp.valueOf(issuanceAt), returnedAt});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO issuance (id, book_id, reader_id, issuance_at, returned_at) " +
+                    "VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        log.info("Добавлено выдач: {} за {} мс", properties.getIssuances(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Map<String, Object> measureQueries() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("findIssuanceByReaderId", measure(issuanceRepository::findIssuanceByReaderId));
+        result.put("countIssuanceByReaderId", measure(issuanceRepository::countIssuanceByReaderId));
+        return result;
+    }
+
+    /**
+     * Запросы выполняются для читателей в одинаковой последовательности при каждом замере
+     */
+    private Map<String, Object> measure(LongConsumer query) {
+        Random random = new Random(properties.getSeed());
+        for (int i = 0; i < properties.getWarmup(); i++) {
+            query.accept(random.nextInt(properties.getReaders()) + 1L);
+        }
+        long[] nanos = new long[properties.getIterations()];
+        for (int i = 0; i < nanos.length; i++) {
+            long readerId = random.nextInt(properties.getReaders()) + 1L;
+            long started = System.nanoTime();
+            query.accept(readerId);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("meanMicros", Arrays.stream(nanos).average().orElse(0) / 1_000);
+        stats.put("p50Micros", percentile(nanos, 0.50) / 1_000.0);
+        stats.put("p99Micros", percentile(nanos, 0.99) / 1_000.0);
+        stats.put("maxMicros", nanos.length == 0 ? 0 : nanos[nanos.length - 1] / 1_000.0);
+        return stats;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,44 @@
+package ru.fsv67.benchmarks.query;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки замера запросов выдачи на большом объеме данных
+ */
+@Data
+@ConfigurationProperties("application.benchmark")
+public class QueryBenchmarkProperties {
+    /**
+     * Количество выдач, добавляемых перед замером
+     */
+    private int issuances = 1_000_000;
+    /**
+     * Количество различных читателей в добавляемых выдачах
+     */
+    private int readers = 100_000;
+    /**
+     * Количество различных книг в добавляемых выдачах
+     */
+    private int books = 50_000;
+    /**
+     * Доля закрытых выдач
+     */
+    private double returnedRatio = 0.7;
+    /**
+     * Количество прогревочных запросов перед замером
+     */
+    private int warmup = 2_000;
+    /**
+     * Количество замеряемых запросов
+     */
+    private int iterations = 10_000;
+    /**
+     * Начальное значение генератора случайных чисел, чтобы замер был воспроизводимым
+     */
+    private long seed = 42;
+    /**
+     * Файл с результатами замера
+     */
+    private String output = "target/query-benchmark.json";
+}
@@ -0,0 +1,23 @@
+package ru.fsv67.loadtest;
+
+/**
+ * Виды запросов нагрузочного теста
+ */
+public enum Endpoint {
+    /**
+     * POST /issuance - выдача книги читателю
+     */
+    ISSUE,
+    /**
+     * PUT /issuance/{id} - возврат книги
+     */
+    RETURN,
+    /**
+     * GET /issuance - страница списка выдач с описанием книг и читателей
+     */
+    LIST,
+    /**
+     * GET /reader/{id}/issuance - выдачи читателя через сервис читателей
+     */
+    HISTORY
+}
@@ -0,0 +1,61 @@
+package ru.fsv67.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика одного вида запросов. Задержка отсчитывается от запланированного момента отправки,
+ * поэтому задержки из-за перегрузки генератора или сервиса не теряются
+ */
+public class EndpointStats {
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final Recorder recorder = new Recorder(MAX_LATENCY_NANOS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * @param latencyNanos время от запланированной отправки до получения ответа
+     * @param status       код ответа, 0 при ошибке соединения
+     */
+    public void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else if (status >= 400 && status < 500) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    /**
+     * Метод сбрасывает накопленную статистику, например после прогрева
+     */
+    public void reset() {
+        recorder.reset();
+        succeeded.reset();
+        rejected.reset();
+        failed.reset();
+    }
+
+    public Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    public long succeeded() {
+        return succeeded.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,145 @@
+package ru.fsv67.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки с постоянной частотой отправки (открытая модель).
+ * <p>
+ * Моменты отправки планируются заранее с шагом 1/rate. Каждый запрос выполняется в отдельном
+ * виртуальном потоке, поэтому медленный ответ не задерживает отправку следующих запросов,
+ * а задержка считается от запланированного момента, что исключает coordinated omission
+ */
+public class LoadGenerator {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+    private final ServiceMesh mesh;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final ConcurrentLinkedQueue<Long> openIssuances = new ConcurrentLinkedQueue<>();
+    private final Endpoint[] schedule;
+
+    public LoadGenerator(LoadTestConfig config, ServiceMesh mesh) {
+        this.config = config;
+        this.mesh = mesh;
+        int total = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+        schedule = new Endpoint[total];
+        int index = 0;
+        for (Map.Entry<Endpoint, Integer> weight : config.mix().entrySet()) {
+            stats.put(weight.getKey(), new EndpointStats());
+            for (int i = 0; i < weight.getValue(); i++) {
+                schedule[index++] = weight.getKey();
+            }
+        }
+    }
+
+    /**
+     * Метод добавляет читателей и книги, чтобы лимит выдачи не исчерпывался в первые секунды теста
+     */
+    public void seed() throws Exception {
+        for (int i = 0; i < config.readers(); i++) {
+            send(HttpRequest.newBuilder(URI.create(mesh.url("reader", "/reader")))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"firstName\":\"Читатель\",\"lastName\":\"" + i + "\"}")));
+        }
+        StringBuilder books = new StringBuilder();
+        for (int i = 0; i < config.books(); i++) {
+            books.append("Книга нагрузочного теста ").append(i).append('\n');
+        }
+        send(HttpRequest.newBuilder(URI.create(mesh.url("book", "/book/import")))
+                .header("Content-Type", "text/csv")
+                .POST(HttpRequest.BodyPublishers.ofString(books.toString())));
+    }
+
+    /**
+     * Метод выполняет прогрев, сбрасывает статистику и выполняет замер
+     *
+     * @return статистика по видам запросов и фактическая длительность замера
+     */
+    public Map<Endpoint, EndpointStats> run() throws InterruptedException {
+        generate(config.warmup());
+        stats.values().forEach(EndpointStats::reset);
+        generate(config.duration());
+        return stats;
+    }
+
+    private void generate(Duration duration) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.rate();
+        long count = duration.toNanos() / intervalNanos;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < count; i++) {
+                long intended = start + i * intervalNanos;
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                Endpoint endpoint = schedule[(int) (i % schedule.length)];
+                executor.execute(() -> execute(endpoint, intended));
+            }
+        }
+    }
+
+    private void execute(Endpoint endpoint, long intended) {
+        int status = 0;
+        try {
+            HttpResponse<String> response = httpClient.send(request(endpoint), HttpResponse.BodyHandlers.ofString());
+            status = response.statusCode();
+            if (endpoint == Endpoint.ISSUE && status == 201) {
+                openIssuances.add(objectMapper.readTree(response.body()).path("id").asLong());
+            }
+        } catch (Exception ignored) {
+            // ошибка соединения учитывается как неуспешный запрос
+        } finally {
+            stats.get(endpoint).record(System.nanoTime() - intended, status);
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long readerId = random.nextLong(config.readers()) + 1;
+        HttpRequest.Builder builder = switch (endpoint) {
+            case ISSUE -> HttpRequest.newBuilder(URI.create(mesh.url("issuance", "/issuance")))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"readerId\":" + readerId + ",\"bookId\":"
+                            + (random.nextLong(config.books()) + 1) + "}"));
+            case RETURN -> {
+                Long id = openIssuances.poll();
+                yield HttpRequest.newBuilder(URI.create(mesh.url("issuance",
+                                "/issuance/" + (id == null ? random.nextLong(20) + 1 : id))))
+                        .PUT(HttpRequest.BodyPublishers.noBody());
+            }
+            case LIST -> HttpRequest.newBuilder(URI.create(mesh.url("issuance", "/issuance?size=50")));
+            case HISTORY -> HttpRequest.newBuilder(URI.create(mesh.url("reader", "/reader/" + readerId + "/issuance")));
+        };
+        return builder.timeout(REQUEST_TIMEOUT).build();
+    }
+
+    private void send(HttpRequest.Builder builder) throws Exception {
+        HttpResponse<String> response = httpClient.send(builder.timeout(REQUEST_TIMEOUT).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Подготовка данных не выполнена: " + response.statusCode() + " "
+                    + response.body());
+        }
+    }
+}
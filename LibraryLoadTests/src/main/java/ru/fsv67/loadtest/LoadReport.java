@@ -0,0 +1,66 @@
+package ru.fsv67.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Отчет нагрузочного теста: задержки p50/p99/p999 и пропускная способность по видам запросов.
+ * Сохраняется в report.json, report.txt и распределения HdrHistogram по видам запросов
+ */
+public class LoadReport {
+    private static final double NANOS_IN_MILLI = 1_000_000.0;
+
+    public static void write(LoadTestConfig config, Map<Endpoint, EndpointStats> stats) throws IOException {
+        Path output = config.output();
+        Files.createDirectories(output);
+        double seconds = config.duration().toNanos() / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rate", config.rate());
+        report.put("durationSeconds", seconds);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        StringBuilder text = new StringBuilder(String.format("%-8s %10s %8s %8s %10s %10s %10s %10s%n",
+                "endpoint", "req/s", "4xx", "errors", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+
+        for (Map.Entry<Endpoint, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats endpointStats = entry.getValue();
+            Histogram histogram = endpointStats.histogram();
+            long total = endpointStats.succeeded() + endpointStats.rejected() + endpointStats.failed();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("requests", total);
+            values.put("throughput", total / seconds);
+            values.put("succeeded", endpointStats.succeeded());
+            values.put("rejected", endpointStats.rejected());
+            values.put("failed", endpointStats.failed());
+            values.put("p50Millis", histogram.getValueAtPercentile(50) / NANOS_IN_MILLI);
+            values.put("p99Millis", histogram.getValueAtPercentile(99) / NANOS_IN_MILLI);
+            values.put("p999Millis", histogram.getValueAtPercentile(99.9) / NANOS_IN_MILLI);
+            values.put("maxMillis", histogram.getMaxValue() / NANOS_IN_MILLI);
+            endpoints.put(entry.getKey().name().toLowerCase(), values);
+
+            text.append(String.format("%-8s %10.1f %8d %8d %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey().name().toLowerCase(), total / seconds, endpointStats.rejected(),
+                    endpointStats.failed(), values.get("p50Millis"), values.get("p99Millis"),
+                    values.get("p999Millis"), values.get("maxMillis")));
+
+            try (PrintStream hgrm = new PrintStream(output.resolve(entry.getKey().name().toLowerCase() + ".hgrm")
+                    .toFile())) {
+                histogram.outputPercentileDistribution(hgrm, NANOS_IN_MILLI);
+            }
+        }
+        report.put("endpoints", endpoints);
+
+        new ObjectMapper().writer(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(output.resolve("report.json").toFile(), report);
+        Files.writeString(output.resolve("report.txt"), text);
+        System.out.print(text);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.fsv67.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Настройки нагрузочного теста. Задаются аргументами вида {@code ключ=значение}:
+ * <ul>
+ *     <li>rate - количество запросов в секунду, по умолчанию 200</li>
+ *     <li>duration - длительность замера, по умолчанию 60s</li>
+ *     <li>warmup - длительность прогрева, не попадающего в отчет, по умолчанию 15s</li>
+ *     <li>mix - доли запросов по видам, по умолчанию issue:30,return:20,list:30,history:20</li>
+ *     <li>readers, books - количество читателей и книг, добавляемых перед тестом</li>
+ *     <li>root - корень проекта, jar.discovery, jar.book, jar.reader, jar.issuance - пути к jar сервисов</li>
+ *     <li>output - каталог отчета, по умолчанию target/loadtest</li>
+ *     <li>jvm - дополнительные параметры JVM сервисов, например -XX:+UseZGC</li>
+ *     <li>args - дополнительные аргументы сервисов книг, читателей и выдачи через пробел,
+ *     например --spring.profiles.active=virtual</li>
+ * </ul>
+ */
+public record LoadTestConfig(int rate, Duration duration, Duration warmup, Map<Endpoint, Integer> mix,
+                             int readers, int books, Map<String, Path> jars, Path output, String jvmOptions,
+                             String serviceArgs) {
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Аргумент должен иметь вид ключ=значение: " + arg);
+            }
+            values.put(arg.substring(0, separator).replaceFirst("^--", ""), arg.substring(separator + 1));
+        }
+        Path root = Path.of(values.getOrDefault("root", Files.isDirectory(Path.of("BookMicroService")) ? "." : ".."));
+        Map<String, Path> jars = new LinkedHashMap<>();
+        jars.put("discovery", jar(values, root, "discovery", "DiscoveryMicroService"));
+        jars.put("book", jar(values, root, "book", "BookMicroService"));
+        jars.put("reader", jar(values, root, "reader", "ReaderMicroService"));
+        jars.put("issuance", jar(values, root, "issuance", "IssuanceMicroService"));
+        return new LoadTestConfig(
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                duration(values.getOrDefault("duration", "60s")),
+                duration(values.getOrDefault("warmup", "15s")),
+                mix(values.getOrDefault("mix", "issue:30,return:20,list:30,history:20")),
+                Integer.parseInt(values.getOrDefault("readers", "1000")),
+                Integer.parseInt(values.getOrDefault("books", "10000")),
+                jars,
+                Path.of(values.getOrDefault("output", "target/loadtest")),
+                values.getOrDefault("jvm", ""),
+                values.getOrDefault("args", "")
+        );
+    }
+
+    private static Path jar(Map<String, String> values, Path root, String key, String module) {
+        String path = values.get("jar." + key);
+        if (path != null) {
+            return Path.of(path);
+        }
+        Path exec = root.resolve(module + "/target/" + module + "-1.0.0-exec.jar");
+        return Files.exists(exec) ? exec : root.resolve(module + "/target/" + module + "-1.0.0.jar");
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static Map<Endpoint, Integer> mix(String value) {
+        Map<Endpoint, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            mix.put(Endpoint.valueOf(weight[0].trim().toUpperCase()), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,25 @@
+package ru.fsv67.loadtest;
+
+import java.util.Map;
+
+/**
+ * Нагрузочный тест цепочки Discovery - Book/Reader - Issuance.
+ * <p>
+ * Сервисы должны быть собраны: {@code mvn package -DskipTests}. Тест запускает их отдельными процессами
+ * на свободных портах, добавляет данные, подает нагрузку с постоянной частотой и сохраняет отчет
+ */
+public class LoadTestRunner {
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        try (ServiceMesh mesh = new ServiceMesh(config)) {
+            System.out.println("Запуск сервисов, журналы в " + config.output().toAbsolutePath());
+            mesh.start();
+            LoadGenerator generator = new LoadGenerator(config, mesh);
+            generator.seed();
+            System.out.printf("Нагрузка %d запросов/с: прогрев %s, замер %s%n",
+                    config.rate(), config.warmup(), config.duration());
+            Map<Endpoint, EndpointStats> stats = generator.run();
+            LoadReport.write(config, stats);
+        }
+    }
+}
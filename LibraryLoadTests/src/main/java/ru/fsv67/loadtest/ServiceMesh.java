@@ -0,0 +1,122 @@
+package ru.fsv67.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запуск сервисов библиотеки отдельными процессами на свободных портах.
+ * Сервисы одного пакета ru.fsv67 нельзя поднять в одной JVM: сканирование компонентов каждого
+ * приложения подхватит классы остальных
+ */
+public class ServiceMesh implements AutoCloseable {
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final Map<String, Integer> ports = new LinkedHashMap<>();
+    private final List<Process> processes = new ArrayList<>();
+
+    public ServiceMesh(LoadTestConfig config) {
+        this.config = config;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    /**
+     * Метод запускает сервер обнаружения, затем сервисы книг, читателей и выдачи,
+     * и ждет, пока сервис выдачи не найдет сервисы книг и читателей через сервер обнаружения
+     */
+    public void start() throws Exception {
+        Files.createDirectories(config.output());
+        int discoveryPort = freePort();
+        String defaultZone = "http://localhost:" + discoveryPort + "/eureka";
+        launch("discovery", discoveryPort);
+        await(url("discovery", "/eureka/apps"));
+
+        for (String service : List.of("book", "reader", "issuance")) {
+            List<String> args = new ArrayList<>(List.of(
+                    "--eureka.client.serviceUrl.defaultZone=" + defaultZone,
+                    "--eureka.client.registry-fetch-interval-seconds=1",
+                    "--eureka.instance.lease-renewal-interval-in-seconds=1"));
+            if (!config.serviceArgs().isBlank()) {
+                args.addAll(Arrays.asList(config.serviceArgs().trim().split("\\s+")));
+            }
+            launch(service, freePort(), args.toArray(String[]::new));
+        }
+        await(url("book", "/book/1"));
+        await(url("reader", "/reader/1"));
+        await(url("issuance", "/issuance/1"));
+        await(url("reader", "/reader/1/issuance"));
+    }
+
+    public String url(String service, String path) {
+        return "http://localhost:" + ports.get(service) + path;
+    }
+
+    private void launch(String service, int port, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!config.jvmOptions().isBlank()) {
+            command.addAll(Arrays.asList(config.jvmOptions().trim().split("\\s+")));
+        }
+        command.add("-jar");
+        command.add(config.jars().get(service).toAbsolutePath().toString());
+        command.add("--server.port=" + port);
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(config.output().resolve(service + ".log").toFile())
+                .start();
+        processes.add(process);
+        ports.put(service, port);
+    }
+
+    /**
+     * Ожидание ответа без ошибки сервера, пока сервис не поднимется и не найдет зависимые сервисы.
+     * Ответ 4xx означает, что сервис и его зависимости доступны: например, у читателя может не быть выдач,
+     * а недоступный зависимый сервис отвечает 503
+     */
+    private void await(String url) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5)).build();
+        while (System.nanoTime() < deadline) {
+            processes.stream().filter(process -> !process.isAlive()).findAny().ifPresent(process -> {
+                throw new IllegalStateException("Сервис завершился при запуске, см. журналы в " + config.output());
+            });
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // сервис еще не принимает соединения
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Не дождались ответа " + url + " за " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = processes.size() - 1; i >= 0; i--) {
+            processes.get(i).destroy();
+        }
+        processes.clear();
+    }
+}
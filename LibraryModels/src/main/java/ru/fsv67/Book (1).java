@@ -11,8 +11,13 @@ import lombok.NoArgsConstructor;
 @Schema(description = "Сущность книги")
 public class Book {
 
+    /**
+     * Идентификаторы выделяются из последовательности блоками, чтобы пакетная вставка книг
+     * не обращалась к последовательности на каждую строку
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 100)
     @Schema(description = "Идентификатор книги")
     private Long id;
 
@@ -0,0 +1,49 @@
+package ru.fsv67;
+
+/**
+ * Класс вычисляет хеш содержимого ответа для заголовка ETag.
+ * Хеш считается по значениям полей, без сериализации ответа, поэтому при совпадении
+ * с заголовком If-None-Match ответ 304 отдается без формирования тела.
+ * Используется 64-битный FNV-1a
+ */
+public final class ContentHash {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final char SEPARATOR = '\u001f';
+
+    private long hash = OFFSET_BASIS;
+
+    /**
+     * Метод создания хеша для представления ответа.
+     * Формат ответа (JSON или CBOR) выбирается по заголовку Accept,
+     * поэтому заголовок учитывается в хеше, и разные представления получают разные ETag
+     *
+     * @param accept - заголовок Accept запроса, может отсутствовать
+     * @return хеш с учтенным заголовком
+     */
+    public static ContentHash forRepresentation(String accept) {
+        return new ContentHash().add(accept);
+    }
+
+    /**
+     * Метод добавления значения в хеш
+     *
+     * @param value - значение поля, null допускается
+     * @return этот же хеш
+     */
+    public ContentHash add(Object value) {
+        String text = String.valueOf(value);
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * PRIME;
+        }
+        hash = (hash ^ SEPARATOR) * PRIME;
+        return this;
+    }
+
+    /**
+     * @return значение заголовка ETag в кавычках
+     */
+    public String toETag() {
+        return "\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -0,0 +1,44 @@
+package ru.fsv67;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Класс описывает страницу списка при постраничной загрузке по курсору
+ *
+ * @param <T> тип элементов страницы
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Страница списка")
+public class CursorPage<T> {
+
+    @Schema(description = "Элементы страницы, отсортированные по идентификатору")
+    private List<T> items;
+
+    @Schema(description = "Курсор следующей страницы. Отсутствует на последней странице")
+    private Long nextCursor;
+
+    /**
+     * Метод формирования страницы из выборки размером не более size + 1 элементов.
+     * Наличие лишнего элемента означает, что за страницей есть следующая
+     *
+     * @param rows        выборка, отсортированная по идентификатору
+     * @param size        размер страницы
+     * @param idExtractor получение идентификатора элемента
+     * @return страница с курсором на последний элемент, если страница не последняя
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idExtractor) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, idExtractor.apply(items.get(size - 1)));
+    }
+}
@@ -8,12 +8,20 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 /**
- * Класс описывает процесс выдачи книги в БД
+ * Класс описывает процесс выдачи книги в БД.
+ * Индекс (reader_id, returned_at) обслуживает поиск открытых выдач читателя,
+ * индекс book_id - поиск выдач книги, индекс (returned_at, issuance_at) - поиск открытых выдач
+ * в порядке выдачи для отслеживания просрочки
  */
 @Entity
 @Data
 @NoArgsConstructor
 @Schema(description = "Сущность выдачи")
+@Table(indexes = {
+        @Index(name = "idx_issuance_reader_returned", columnList = "reader_id, returned_at"),
+        @Index(name = "idx_issuance_book", columnList = "book_id"),
+        @Index(name = "idx_issuance_returned_issued", columnList = "returned_at, issuance_at")
+})
 public class Issuance {
 
     @Id
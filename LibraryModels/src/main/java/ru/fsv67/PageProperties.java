@@ -0,0 +1,36 @@
+package ru.fsv67;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Получение настроек постраничной загрузки списков из файла настроек
+ */
+@Data
+@ConfigurationProperties("application.page")
+public class PageProperties {
+    /**
+     * Размер страницы, если он не указан в запросе
+     */
+    private int defaultSize = 50;
+    /**
+     * Максимальный размер страницы
+     */
+    private int maxSize = 500;
+
+    /**
+     * Метод определения размера страницы по запросу пользователя
+     *
+     * @param size размер страницы, указанный пользователем
+     * @return размер страницы, не превышающий максимальный
+     */
+    public int resolveSize(Integer size) {
+        if (size == null) {
+            return defaultSize;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть больше нуля");
+        }
+        return Math.min(size, maxSize);
+    }
+}
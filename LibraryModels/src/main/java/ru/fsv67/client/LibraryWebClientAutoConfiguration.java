@@ -0,0 +1,120 @@
+package ru.fsv67.client;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.ClientHttpConnectorAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Автоконфигурация общего HTTP клиента сервисов библиотеки.
+ * Клиент использует общий пул соединений Reactor Netty с keep-alive и пулом буферов,
+ * время ожидания ответа задается отдельно для каждого сервиса.
+ * Бин libraryWebClient определяет экземпляр сервиса через балансировщик, если в адресе не указан порт:
+ * http://BOOK-SERVICE/book/1 - через балансировщик, http://10.0.0.1:8380/book/1 - напрямую.
+ * По умолчанию клиент запрашивает ответы в формате CBOR, см. {@link ru.fsv67.codec.CborAutoConfiguration}
+ */
+@AutoConfiguration(before = ClientHttpConnectorAutoConfiguration.class)
+@ConditionalOnClass({WebClient.class, HttpClient.class})
+@EnableConfigurationProperties(LibraryWebClientProperties.class)
+public class LibraryWebClientAutoConfiguration {
+    /**
+     * Атрибут запроса с именем сервиса, если адрес экземпляра определен вручную
+     */
+    public static final String TARGET_ATTRIBUTE = "library.target";
+    /**
+     * Заголовок Accept внутренних запросов: CBOR, если сервис его поддерживает, иначе JSON
+     */
+    private static final String CBOR_FIRST = "application/cbor, application/json;q=0.9";
+
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnMissingBean(name = "libraryConnectionProvider")
+    public ConnectionProvider libraryConnectionProvider(LibraryWebClientProperties properties) {
+        return ConnectionProvider.builder("library")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictionInterval())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ClientHttpConnector.class)
+    public ReactorClientHttpConnector libraryClientHttpConnector(ConnectionProvider libraryConnectionProvider,
+                                                                 LibraryWebClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(libraryConnectionProvider)
+                .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout())
+                .compress(properties.isCompression());
+        if (properties.isH2c()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "libraryWebClient")
+    public WebClient libraryWebClient(WebClient.Builder webClientBuilder, LibraryWebClientProperties properties,
+                                      ObjectProvider<DiscoveryExchangeFilter> discoveryExchangeFilter) {
+        WebClient.Builder builder = webClientBuilder.filter(new TargetTimeoutExchangeFilter(properties));
+        if (properties.isCbor()) {
+            builder.defaultHeader(HttpHeaders.ACCEPT, CBOR_FIRST);
+        }
+        discoveryExchangeFilter.ifAvailable(builder::filter);
+        return builder.build();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ReactorLoadBalancerExchangeFilterFunction.class)
+    static class DiscoveryConfiguration {
+
+        @Bean
+        public DiscoveryExchangeFilter libraryDiscoveryExchangeFilter(
+                ObjectProvider<ReactorLoadBalancerExchangeFilterFunction> loadBalancerExchangeFilterFunction) {
+            return new DiscoveryExchangeFilter(loadBalancerExchangeFilterFunction.getIfAvailable());
+        }
+    }
+
+    /**
+     * Фильтр, передающий запрос балансировщику, только если в адресе указано имя сервиса без порта
+     */
+    public static class DiscoveryExchangeFilter implements ExchangeFilterFunction {
+        private final ExchangeFilterFunction loadBalancer;
+
+        DiscoveryExchangeFilter(ExchangeFilterFunction loadBalancer) {
+            this.loadBalancer = loadBalancer;
+        }
+
+        @Override
+        public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+            if (loadBalancer == null || request.url().getPort() != -1) {
+                return next.exchange(request);
+            }
+            return loadBalancer.filter(request, next);
+        }
+    }
+}
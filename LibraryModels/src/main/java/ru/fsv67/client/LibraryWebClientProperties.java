@@ -0,0 +1,87 @@
+package ru.fsv67.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Настройки общего HTTP клиента для обращения сервисов друг к другу
+ */
+@Data
+@ConfigurationProperties("application.web-client")
+public class LibraryWebClientProperties {
+    /**
+     * Максимальное количество соединений в пуле на один адрес
+     */
+    private int maxConnections = 200;
+    /**
+     * Максимальное количество запросов, ожидающих свободное соединение
+     */
+    private int pendingAcquireMaxCount = 1000;
+    /**
+     * Время ожидания свободного соединения из пула
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    /**
+     * Время простоя, после которого соединение закрывается
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    /**
+     * Максимальное время жизни соединения, чтобы нагрузка перераспределялась между экземплярами
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    /**
+     * Период фоновой очистки пула от простаивающих соединений
+     */
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    /**
+     * Время установки TCP соединения
+     */
+    private Duration connectTimeout = Duration.ofSeconds(1);
+    /**
+     * Время ожидания ответа по умолчанию
+     */
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    /**
+     * Время ожидания ответа для отдельных сервисов, ключ - имя сервиса или хост
+     */
+    private Map<String, Duration> responseTimeouts = new LinkedHashMap<>();
+    /**
+     * Запрашивать сжатые ответы (gzip)
+     */
+    private boolean compression = false;
+    /**
+     * Запрашивать ответы в двоичном формате CBOR, JSON остается запасным вариантом
+     */
+    private boolean cbor = true;
+    /**
+     * Использовать HTTP/2 без шифрования (h2c) с переходом с HTTP/1.1.
+     * На стороне сервера требуется server.http2.enabled=true
+     */
+    private boolean h2c = false;
+
+    /**
+     * Метод определения времени ожидания ответа для сервиса
+     *
+     * @param host - имя сервиса или хост из адреса запроса
+     * @return время ожидания ответа
+     */
+    public Duration responseTimeoutFor(String host) {
+        if (host != null) {
+            Duration timeout = responseTimeouts.get(host.toLowerCase(Locale.ROOT));
+            if (timeout != null) {
+                return timeout;
+            }
+        }
+        return responseTimeout;
+    }
+
+    public void setResponseTimeouts(Map<String, Duration> responseTimeouts) {
+        this.responseTimeouts = new LinkedHashMap<>();
+        responseTimeouts.forEach((host, timeout) -> this.responseTimeouts.put(host.toLowerCase(Locale.ROOT), timeout));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.fsv67.client;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
+
+import java.time.Duration;
+
+/**
+ * Фильтр, задающий время ожидания ответа по имени сервиса.
+ * Имя берется из атрибута запроса {@link LibraryWebClientAutoConfiguration#TARGET_ATTRIBUTE},
+ * иначе из адреса запроса. Применяется до балансировщика, пока в адресе указано имя сервиса, а не адрес экземпляра
+ */
+class TargetTimeoutExchangeFilter implements ExchangeFilterFunction {
+    private final LibraryWebClientProperties properties;
+
+    TargetTimeoutExchangeFilter(LibraryWebClientProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String target = request.attribute(LibraryWebClientAutoConfiguration.TARGET_ATTRIBUTE)
+                .map(Object::toString)
+                .orElse(request.url().getHost());
+        Duration timeout = properties.responseTimeoutFor(target);
+        if (timeout.equals(properties.getResponseTimeout())) {
+            return next.exchange(request);
+        }
+        ClientRequest timedRequest = ClientRequest.from(request)
+                .httpRequest(httpRequest -> {
+                    if (httpRequest.getNativeRequest() instanceof HttpClientRequest nativeRequest) {
+                        nativeRequest.responseTimeout(timeout);
+                    }
+                })
+                .build();
+        return next.exchange(timedRequest);
+    }
+}
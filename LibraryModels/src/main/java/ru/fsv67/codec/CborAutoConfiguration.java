@@ -0,0 +1,72 @@
+package ru.fsv67.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.codec.CodecsAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Автоконфигурация двоичного формата CBOR для обмена данными между сервисами.
+ * Контроллеры отдают CBOR только при запросе с заголовком Accept: application/cbor,
+ * остальные клиенты получают JSON. Даты в CBOR записываются числами, а не строками
+ */
+@AutoConfiguration(after = JacksonAutoConfiguration.class,
+        before = {HttpMessageConvertersAutoConfiguration.class, CodecsAutoConfiguration.class})
+@ConditionalOnClass({CBORFactory.class, Jackson2ObjectMapperBuilder.class})
+public class CborAutoConfiguration {
+
+    /**
+     * Метод создания объектного отображения CBOR с настройками Jackson приложения
+     *
+     * @param builder - построитель с настройками Jackson приложения
+     * @return объектное отображение CBOR
+     */
+    static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        return builder.createXmlMapper(false)
+                .factory(new CBORFactory())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletConfiguration {
+
+        @Bean
+        public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+            return new MappingJackson2CborHttpMessageConverter(cborObjectMapper(builder));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(WebClient.class)
+    static class ClientConfiguration {
+
+        /**
+         * Кодеки CBOR регистрируются с явным типом содержимого: без него конструктор с отображением
+         * принимает типы JSON, и ответы JSON читались бы декодером CBOR
+         */
+        @Bean
+        public CodecCustomizer cborCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+            ObjectMapper objectMapper = cborObjectMapper(builder);
+            return configurer -> {
+                configurer.customCodecs().register(new Jackson2CborDecoder(objectMapper, MediaType.APPLICATION_CBOR));
+                configurer.customCodecs().register(new Jackson2CborEncoder(objectMapper, MediaType.APPLICATION_CBOR));
+            };
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.fsv67.events;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Класс описывает событие изменения справочника книг или читателей
+ *
+ * @param <T> тип сущности справочника
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Событие изменения справочника")
+public class CatalogEvent<T> {
+
+    @Schema(description = "Порядковый номер события в журнале")
+    private long sequence;
+
+    @Schema(description = "Вид изменения")
+    private Type type;
+
+    @Schema(description = "Идентификатор сущности")
+    private long id;
+
+    @Schema(description = "Сущность после изменения. Отсутствует при удалении")
+    private T payload;
+
+    public enum Type {
+        CREATED,
+        DELETED
+    }
+}
@@ -0,0 +1,42 @@
+package ru.fsv67.events;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Класс описывает часть журнала событий справочника, прочитанную после заданного номера
+ *
+ * @param <T> тип сущности справочника
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Часть журнала событий справочника")
+public class CatalogEventBatch<T> {
+
+    @Schema(description = "Идентификатор журнала. Меняется при перезапуске сервиса, нумерация событий начинается заново")
+    private String epoch;
+
+    @Schema(description = "Номер самого старого события, хранящегося в журнале")
+    private long oldestSequence;
+
+    @Schema(description = "Номер последнего события журнала")
+    private long lastSequence;
+
+    @Schema(description = "События в порядке возрастания номера")
+    private List<CatalogEvent<T>> events;
+
+    /**
+     * Метод проверки, что события после номера after еще хранятся в журнале
+     *
+     * @param after - номер последнего обработанного события
+     * @return false, если часть событий вытеснена из журнала и требуется полная загрузка справочника
+     */
+    public boolean isContinuousAfter(long after) {
+        return after + 1 >= oldestSequence || after >= lastSequence;
+    }
+}
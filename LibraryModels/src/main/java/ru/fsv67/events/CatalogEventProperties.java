@@ -0,0 +1,21 @@
+package ru.fsv67.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки журнала событий справочника
+ */
+@Data
+@ConfigurationProperties("application.events")
+public class CatalogEventProperties {
+    /**
+     * Количество хранимых событий. Потребитель, отставший больше чем на это количество,
+     * загружает справочник полностью
+     */
+    private int capacity = 100_000;
+    /**
+     * Максимальное количество событий в одном ответе
+     */
+    private int maxBatchSize = 1000;
+}
@@ -0,0 +1,26 @@
+package ru.fsv67.events;
+
+/**
+ * Публикация событий изменения справочника.
+ * Реализация по умолчанию - {@link InMemoryCatalogEventLog}, журнал в памяти сервиса, читаемый по HTTP.
+ * Для передачи событий через брокер сообщений достаточно заменить реализацию
+ *
+ * @param <T> тип сущности справочника
+ */
+public interface CatalogEventPublisher<T> {
+
+    /**
+     * Метод публикации создания сущности
+     *
+     * @param id      - идентификатор сущности
+     * @param payload - сохраненная сущность
+     */
+    void created(long id, T payload);
+
+    /**
+     * Метод публикации удаления сущности
+     *
+     * @param id - идентификатор удаленной сущности
+     */
+    void deleted(long id);
+}
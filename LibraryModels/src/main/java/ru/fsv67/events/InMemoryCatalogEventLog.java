@@ -0,0 +1,59 @@
+package ru.fsv67.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Класс описывает журнал событий справочника в памяти сервиса.
+ * Хранит последние {@link CatalogEventProperties#getCapacity()} событий в кольцевом буфере,
+ * потребители читают журнал по номеру последнего обработанного события
+ *
+ * @param <T> тип сущности справочника
+ */
+public class InMemoryCatalogEventLog<T> implements CatalogEventPublisher<T> {
+    private final String epoch = UUID.randomUUID().toString();
+    private final CatalogEventProperties properties;
+    private final CatalogEvent<T>[] buffer;
+    private long lastSequence;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryCatalogEventLog(CatalogEventProperties properties) {
+        this.properties = properties;
+        this.buffer = new CatalogEvent[Math.max(1, properties.getCapacity())];
+    }
+
+    @Override
+    public void created(long id, T payload) {
+        append(CatalogEvent.Type.CREATED, id, payload);
+    }
+
+    @Override
+    public void deleted(long id) {
+        append(CatalogEvent.Type.DELETED, id, null);
+    }
+
+    private synchronized void append(CatalogEvent.Type type, long id, T payload) {
+        lastSequence++;
+        buffer[(int) (lastSequence % buffer.length)] = new CatalogEvent<>(lastSequence, type, id, payload);
+    }
+
+    /**
+     * Метод чтения событий после заданного номера
+     *
+     * @param after - номер последнего обработанного события, 0 для чтения с начала
+     * @param limit - максимальное количество событий, не более {@link CatalogEventProperties#getMaxBatchSize()}
+     * @return события журнала и его границы
+     */
+    public synchronized CatalogEventBatch<T> read(long after, Integer limit) {
+        long oldest = Math.max(1, lastSequence - buffer.length + 1);
+        int size = Math.min(limit == null || limit < 1 ? properties.getMaxBatchSize() : limit,
+                properties.getMaxBatchSize());
+        List<CatalogEvent<T>> events = new ArrayList<>(Math.min(size, 64));
+        for (long sequence = Math.max(after + 1, oldest); sequence <= lastSequence && events.size() < size;
+             sequence++) {
+            events.add(buffer[(int) (sequence % buffer.length)]);
+        }
+        return new CatalogEventBatch<>(epoch, oldest, lastSequence, events);
+    }
+}
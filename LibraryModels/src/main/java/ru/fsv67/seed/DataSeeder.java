@@ -0,0 +1,14 @@
+package ru.fsv67.seed;
+
+/**
+ * Добавление первоначальных тестовых данных сервиса.
+ * Момент вызова определяется настройкой {@link SeedProperties#getMode()}
+ */
+@FunctionalInterface
+public interface DataSeeder {
+
+    /**
+     * Метод добавления тестовых данных
+     */
+    void seed();
+}
@@ -0,0 +1,19 @@
+package ru.fsv67.seed;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Автоконфигурация добавления тестовых данных сервисов
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(SeedProperties.class)
+public class SeedAutoConfiguration {
+
+    @Bean
+    public SeedRunner seedRunner(SeedProperties properties, ObjectProvider<DataSeeder> seeders) {
+        return new SeedRunner(properties, seeders);
+    }
+}
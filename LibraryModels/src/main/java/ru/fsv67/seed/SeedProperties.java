@@ -0,0 +1,31 @@
+package ru.fsv67.seed;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Получение настроек добавления тестовых данных из файла настроек
+ */
+@Data
+@ConfigurationProperties("application.seed")
+public class SeedProperties {
+    /**
+     * Момент добавления тестовых данных
+     */
+    private Mode mode = Mode.SYNC;
+
+    public enum Mode {
+        /**
+         * При запуске, до начала приема запросов
+         */
+        SYNC,
+        /**
+         * В фоне после запуска, запросы принимаются, пока данные добавляются
+         */
+        ASYNC,
+        /**
+         * Тестовые данные не добавляются
+         */
+        DISABLED
+    }
+}
@@ -0,0 +1,57 @@
+package ru.fsv67.seed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.List;
+
+/**
+ * Класс описывает запуск добавления тестовых данных.
+ * В режиме SYNC данные добавляются после создания всех компонентов, до запуска веб-сервера,
+ * в режиме ASYNC - в отдельном потоке после готовности сервиса, поэтому не увеличивают время запуска
+ */
+@Slf4j
+public class SeedRunner implements SmartInitializingSingleton, ApplicationListener<ApplicationReadyEvent> {
+    private final SeedProperties properties;
+    private final ObjectProvider<DataSeeder> seeders;
+
+    public SeedRunner(SeedProperties properties, ObjectProvider<DataSeeder> seeders) {
+        this.properties = properties;
+        this.seeders = seeders;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (properties.getMode() == SeedProperties.Mode.SYNC) {
+            seed();
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (properties.getMode() == SeedProperties.Mode.ASYNC) {
+            Thread.ofVirtual().name("data-seeder").start(this::seed);
+        }
+    }
+
+    private void seed() {
+        List<DataSeeder> list = seeders.orderedStream().toList();
+        if (list.isEmpty()) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            list.forEach(DataSeeder::seed);
+            log.info("Тестовые данные добавлены ({}), время {} мс",
+                    properties.getMode(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            if (properties.getMode() == SeedProperties.Mode.SYNC) {
+                throw e;
+            }
+            log.warn("Тестовые данные не добавлены: {}", e.getMessage(), e);
+        }
+    }
+}
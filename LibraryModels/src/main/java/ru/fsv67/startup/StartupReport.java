@@ -0,0 +1,29 @@
+package ru.fsv67.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Класс описывает отчет о времени запуска сервиса.
+ * Время от запуска JVM и время подъема контекста записываются в журнал одной строкой,
+ * по которой сравнивается запуск сервиса в разных профилях и при разном объеме данных
+ */
+@Slf4j
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        Duration context = event.getTimeTaken();
+        log.info("Запуск {}: готов через {} мс после старта JVM, подъем контекста {} мс, профили {}",
+                environment.getProperty("spring.application.name", "application"),
+                ManagementFactory.getRuntimeMXBean().getUptime(),
+                context == null ? "-" : context.toMillis(),
+                String.join(",", environment.getActiveProfiles()));
+    }
+}
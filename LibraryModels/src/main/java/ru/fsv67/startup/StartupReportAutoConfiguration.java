@@ -0,0 +1,16 @@
+package ru.fsv67.startup;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Автоконфигурация отчета о времени запуска сервиса
+ */
+@AutoConfiguration
+public class StartupReportAutoConfiguration {
+
+    @Bean
+    public StartupReport startupReport() {
+        return new StartupReport();
+    }
+}
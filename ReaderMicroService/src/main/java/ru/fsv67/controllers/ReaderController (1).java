@@ -8,14 +8,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import ru.fsv67.ContentHash;
+import ru.fsv67.CursorPage;
 import ru.fsv67.Issuance;
 import ru.fsv67.Reader;
+import ru.fsv67.events.CatalogEventBatch;
+import ru.fsv67.services.ReaderEventLog;
 import ru.fsv67.services.ReaderService;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 
@@ -25,10 +31,51 @@ import java.util.NoSuchElementException;
 @Tag(name = "Читатели", description = "Управление всеми читателями в системе")
 public class ReaderController {
     private final ReaderService readerService;
+    private final ReaderEventLog eventLog;
+
+    @Operation(
+            summary = "Получение страницы списка читателей",
+            description = "Постраничная загрузка читателей по курсору в порядке возрастания идентификатора",
+            parameters = {
+                    @Parameter(name = "after", description = "Курсор: идентификатор последнего читателя предыдущей " +
+                            "страницы. Не указывается для первой страницы"),
+                    @Parameter(name = "size", description = "Размер страницы, не более максимального")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение страницы читателей", content = {
+                            @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPage.class))
+                    }),
+                    @ApiResponse(responseCode = "400", description = "Неверный размер страницы", content = {
+                            @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                    }),
+                    @ApiResponse(responseCode = "404", description = "Список читателей пуст. Читатели отсутствуют в " +
+                            "системе", content = {
+                            @Content(mediaType = "*/*", schema = @Schema(implementation = String.class))
+                    })
+            }
+    )
+    @GetMapping()
+    public ResponseEntity<CursorPage<Reader>> getReaderPage(@RequestParam(required = false) Long after,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @Parameter(hidden = true)
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        final CursorPage<Reader> page;
+        try {
+            page = readerService.getReaderPage(after, size);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, page.getItems(), page.getNextCursor()))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(page);
+    }
 
     @Operation(
             summary = "Получение списка читателей",
-            description = "Загрузка всех читателей сохранённых в системе",
+            description = "Загрузка всех читателей сохранённых в системе одним ответом. Требует явного unpaged=true",
             responses = {
                     @ApiResponse(responseCode = "200", description = "Успешное получение списка читателей", content = {
                             @Content(mediaType = "application/json", array = @ArraySchema(schema =
@@ -41,15 +88,19 @@ public class ReaderController {
                     })
             }
     )
-    @GetMapping()
-    public ResponseEntity<List<Reader>> getReaderList() {
+    @GetMapping(params = "unpaged=true")
+    public ResponseEntity<List<Reader>> getReaderList(
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         final List<Reader> readers;
         try {
             readers = readerService.getReaderList();
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.OK).body(readers);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, readers, null))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(readers);
     }
 
     @Operation(
@@ -70,14 +121,36 @@ public class ReaderController {
             }
     )
     @GetMapping("/{id}")
-    public ResponseEntity<Reader> getReaderById(@PathVariable long id) {
+    public ResponseEntity<Reader> getReaderById(@PathVariable long id,
+                                                @Parameter(hidden = true)
+                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         final Reader reader;
         try {
             reader = readerService.getReaderById(id);
         } catch (NoSuchElementException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         }
-        return ResponseEntity.status(HttpStatus.OK).body(reader);
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(eTag(accept, List.of(reader), null))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(reader);
+    }
+
+    @Operation(
+            summary = "Получение списка читателей по идентификаторам",
+            description = "Пакетная загрузка читателей по списку идентификаторов. Отсутствующие идентификаторы " +
+                    "пропускаются",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение списка читателей", content = {
+                            @Content(mediaType = "application/json", array = @ArraySchema(schema =
+                            @Schema(implementation = Reader.class)
+                            ))
+                    })
+            }
+    )
+    @PostMapping("/batch")
+    public ResponseEntity<List<Reader>> getReadersByIds(@RequestBody List<Long> ids) {
+        return ResponseEntity.status(HttpStatus.OK).body(readerService.getReadersByIds(ids));
     }
 
     @Operation(
@@ -142,6 +215,27 @@ public class ReaderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(reader);
     }
 
+    @Operation(
+            summary = "Получение событий справочника читателей",
+            description = "Чтение журнала создания и удаления читателей после заданного номера события. " +
+                    "Используется сервисом выдачи для ведения локальной копии справочника",
+            parameters = {
+                    @Parameter(name = "after", description = "Номер последнего обработанного события, 0 - с начала"),
+                    @Parameter(name = "limit", description = "Максимальное количество событий в ответе")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Успешное получение событий", content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = CatalogEventBatch.class))
+                    })
+            }
+    )
+    @GetMapping("/events")
+    public ResponseEntity<CatalogEventBatch<Reader>> getEvents(@RequestParam(defaultValue = "0") long after,
+                                                               @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.status(HttpStatus.OK).body(eventLog.read(after, limit));
+    }
+
     @Operation(
             summary = "Удаление читателя",
             description = "Удаление читателя из системы по идентификатору",
@@ -169,4 +263,15 @@ public class ReaderController {
         }
         return ResponseEntity.status(HttpStatus.OK).body(reader);
     }
+
+    /**
+     * Метод вычисления ETag по содержимому и формату ответа
+     */
+    private static String eTag(String accept, Collection<Reader> readers, Long nextCursor) {
+        ContentHash hash = ContentHash.forRepresentation(accept);
+        for (Reader reader : readers) {
+            hash.add(reader.getId()).add(reader.getFirstName()).add(reader.getLastName());
+        }
+        return hash.add(nextCursor).toETag();
+    }
 }
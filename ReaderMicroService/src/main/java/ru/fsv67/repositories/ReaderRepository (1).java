@@ -1,9 +1,20 @@
 package ru.fsv67.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.fsv67.Reader;
 
+import java.util.List;
+
 @Repository
 public interface ReaderRepository extends JpaRepository<Reader, Long> {
+    /**
+     * Метод постраничной загрузки читателей по курсору
+     *
+     * @param id    идентификатор последнего читателя предыдущей страницы
+     * @param limit максимальное количество читателей
+     * @return читатели с идентификатором больше заданного, отсортированные по идентификатору
+     */
+    List<Reader> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 }
@@ -0,0 +1,206 @@
+package ru.fsv67.services;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.CacheRefreshedEvent;
+import com.netflix.discovery.EurekaClient;
+import com.netflix.discovery.EurekaEventListener;
+import com.netflix.discovery.shared.Application;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Класс описывает выбор экземпляра сервиса выдачи книг.
+ * Список экземпляров хранится локально и обновляется при обновлении реестра Eureka.
+ * Экземпляр выбирается из двух случайных по количеству незавершенных запросов и среднему времени ответа,
+ * поэтому медленный экземпляр получает меньше запросов.
+ * Среднее время ответа экземпляра, который не выбирается, со временем возвращается к начальному,
+ * поэтому после кратковременного сбоя экземпляр снова получает запросы.
+ * Если клиент Eureka выключен (eureka.client.enabled=false), экземпляров нет и запросы к сервису выдачи
+ * завершаются ошибкой, остальные функции сервиса читателей работают
+ */
+@Slf4j
+@Component
+public class IssuanceInstanceSelector {
+    private static final String APPLICATION = "ISSUANCE-SERVICE";
+    /**
+     * Вес последнего замера в скользящем среднем времени ответа
+     */
+    private static final double ALPHA = 0.3;
+    /**
+     * Начальное время ответа нового экземпляра
+     */
+    private static final long INITIAL_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    /**
+     * Минимальное время ответа, учитываемое при ошибке соединения
+     */
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /**
+     * Время, за которое отклонение среднего времени ответа от начального уменьшается вдвое без новых замеров
+     */
+    private static final double DECAY_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final EurekaClient eurekaClient;
+    private final EurekaEventListener refreshListener = event -> {
+        if (event instanceof CacheRefreshedEvent) {
+            refresh();
+        }
+    };
+    private volatile List<Instance> instances = List.of();
+
+    public IssuanceInstanceSelector(ObjectProvider<EurekaClient> eurekaClient) {
+        this.eurekaClient = eurekaClient.getIfAvailable();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        if (eurekaClient != null) {
+            eurekaClient.registerEventListener(refreshListener);
+            refresh();
+        }
+    }
+
+    @PreDestroy
+    void unsubscribe() {
+        if (eurekaClient != null) {
+            eurekaClient.unregisterEventListener(refreshListener);
+        }
+    }
+
+    /**
+     * Метод обновления локального списка экземпляров.
+     * Статистика сохраняется для экземпляров, оставшихся в реестре
+     */
+    synchronized void refresh() {
+        if (eurekaClient == null) {
+            return;
+        }
+        Application application = eurekaClient.getApplication(APPLICATION);
+        List<InstanceInfo> instanceInfoList = application == null ? List.of() : application.getInstances();
+        Map<String, Instance> current = new HashMap<>();
+        for (Instance instance : instances) {
+            current.put(instance.url, instance);
+        }
+        List<Instance> updated = instanceInfoList.stream()
+                .filter(info -> info.getStatus() == InstanceInfo.InstanceStatus.UP)
+                .map(info -> baseUrl(info.getHomePageUrl()))
+                .map(url -> current.getOrDefault(url, new Instance(url)))
+                .toList();
+        if (updated.size() != instances.size()) {
+            log.info("Доступно экземпляров сервиса выдачи книг: {}", updated.size());
+        }
+        instances = updated;
+    }
+
+    private static String baseUrl(String homePageUrl) {
+        return homePageUrl.endsWith("/") ? homePageUrl.substring(0, homePageUrl.length() - 1) : homePageUrl;
+    }
+
+    /**
+     * Метод выбора экземпляра сервиса выдачи книг.
+     * Выбранный экземпляр необходимо освободить методом {@link Lease#release(boolean)} после получения ответа
+     *
+     * @return выбранный экземпляр
+     * @throws IllegalStateException если нет доступных экземпляров
+     */
+    public Lease acquire() {
+        List<Instance> snapshot = instances;
+        if (snapshot.isEmpty()) {
+            refresh();
+            snapshot = instances;
+        }
+        if (snapshot.isEmpty()) {
+            throw new IllegalStateException("Нет доступных экземпляров сервиса выдачи книг");
+        }
+        Instance instance = snapshot.get(0);
+        if (snapshot.size() > 1) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(snapshot.size());
+            int second = random.nextInt(snapshot.size() - 1);
+            if (second >= first) {
+                second++;
+            }
+            Instance a = snapshot.get(first);
+            Instance b = snapshot.get(second);
+            long now = System.nanoTime();
+            instance = a.score(now) <= b.score(now) ? a : b;
+        }
+        instance.outstanding.incrementAndGet();
+        return new Lease(instance, System.nanoTime());
+    }
+
+    private static final class Instance {
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile double latencyNanos = INITIAL_LATENCY_NANOS;
+        private volatile long sampledAt = System.nanoTime();
+
+        private Instance(String url) {
+            this.url = url;
+        }
+
+        private double score(long now) {
+            return (outstanding.get() + 1) * latency(now);
+        }
+
+        /**
+         * Среднее время ответа с затуханием к начальному значению по времени с последнего замера
+         */
+        private double latency(long now) {
+            double decay = Math.pow(0.5, Math.max(0, now - sampledAt) / DECAY_HALF_LIFE_NANOS);
+            return INITIAL_LATENCY_NANOS + (latencyNanos - INITIAL_LATENCY_NANOS) * decay;
+        }
+
+        private synchronized void record(long elapsedNanos) {
+            long now = System.nanoTime();
+            double current = latency(now);
+            latencyNanos = current + ALPHA * (elapsedNanos - current);
+            sampledAt = now;
+        }
+    }
+
+    /**
+     * Выбранный экземпляр сервиса на время выполнения запроса
+     */
+    public static final class Lease {
+        private final Instance instance;
+        private final long startNanos;
+        private boolean released;
+
+        private Lease(Instance instance, long startNanos) {
+            this.instance = instance;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * @return адрес экземпляра сервиса
+         */
+        public String url() {
+            return instance.url;
+        }
+
+        /**
+         * Метод освобождения экземпляра с учетом времени ответа
+         *
+         * @param failed - запрос завершился ошибкой соединения или сервера
+         */
+        public void release(boolean failed) {
+            if (released) {
+                return;
+            }
+            released = true;
+            instance.outstanding.decrementAndGet();
+            long elapsed = System.nanoTime() - startNanos;
+            instance.record(failed ? Math.max(elapsed, FAILURE_PENALTY_NANOS) : elapsed);
+        }
+    }
+}
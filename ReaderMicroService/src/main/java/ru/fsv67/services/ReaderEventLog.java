@@ -0,0 +1,19 @@
+package ru.fsv67.services;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import ru.fsv67.Reader;
+import ru.fsv67.events.CatalogEventProperties;
+import ru.fsv67.events.InMemoryCatalogEventLog;
+
+/**
+ * Журнал событий справочника читателей, читаемый сервисом выдачи через GET /reader/events
+ */
+@Component
+@EnableConfigurationProperties(CatalogEventProperties.class)
+public class ReaderEventLog extends InMemoryCatalogEventLog<Reader> {
+
+    public ReaderEventLog(CatalogEventProperties properties) {
+        super(properties);
+    }
+}
@@ -1,56 +1,87 @@
 package ru.fsv67.services;
 
 import com.github.javafaker.Faker;
-import com.netflix.appinfo.InstanceInfo;
-import com.netflix.discovery.EurekaClient;
-import com.netflix.discovery.shared.Application;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import ru.fsv67.CursorPage;
 import ru.fsv67.Issuance;
+import ru.fsv67.PageProperties;
 import ru.fsv67.Reader;
+import ru.fsv67.client.LibraryWebClientAutoConfiguration;
+import ru.fsv67.events.CatalogEventPublisher;
 import ru.fsv67.repositories.ReaderRepository;
+import ru.fsv67.seed.DataSeeder;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @RequiredArgsConstructor
-public class ReaderService {
+@EnableConfigurationProperties(PageProperties.class)
+public class ReaderService implements DataSeeder {
+    private static final ParameterizedTypeReference<List<Issuance>> ISSUANCE_LIST =
+            new ParameterizedTypeReference<>() {
+            };
     private final ReaderRepository readerRepository;
-    private final WebClient webClient = WebClient.builder().build();
-    private final EurekaClient eurekaClient;
+    private final PageProperties pageProperties;
+    private final CatalogEventPublisher<Reader> eventPublisher;
+    private final WebClient webClient;
+    private final IssuanceInstanceSelector instanceSelector;
+    private final MeterRegistry meterRegistry;
 
     /**
-     * Метод получения адреса зарегистрированного сервиса
+     * Метод выбора экземпляра сервиса выдачи книг.
+     * Время выбора публикуется в метрике library.discovery.lookup
      *
-     * @return ip адрес и port
+     * @return выбранный экземпляр сервиса
      */
-    private String getIssuanceServiceIp() {
-        Application application = eurekaClient.getApplication("ISSUANCE-SERVICE");
-        List<InstanceInfo> instanceInfoList = application.getInstances();
-        int indexInstance = ThreadLocalRandom.current().nextInt(instanceInfoList.size());
-        InstanceInfo randomInstanceInfo = instanceInfoList.get(indexInstance);
-        return randomInstanceInfo.getHomePageUrl();
-//        return "http://" + randomInstanceInfo.getIPAddr() + ":" + randomInstanceInfo.getPort();
+    private IssuanceInstanceSelector.Lease selectIssuanceInstance() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            IssuanceInstanceSelector.Lease lease = instanceSelector.acquire();
+            outcome = "success";
+            return lease;
+        } finally {
+            sample.stop(timer("library.discovery.lookup", "Поиск экземпляра сервиса", "lookup", outcome));
+        }
+    }
+
+    private Timer timer(String name, String description, String operation, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("target", "issuance-service")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     /**
-     * Первоначальные тестовые данные
+     * Первоначальные тестовые данные. Момент добавления задается настройкой application.seed.mode.
+     * Если в хранилище уже есть читатели, данные не добавляются. Проверка читает одну строку по первичному ключу
      */
-    @PostConstruct
-    void generateData() {
+    @Override
+    public void seed() {
+        if (!readerRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(1)).isEmpty()) {
+            return;
+        }
         Faker faker = new Faker();
         List<Reader> readerList = new ArrayList<>();
         for (int i = 0; i < 10; i++) {
             readerList.add(new Reader(faker.name().firstName(), faker.name().lastName()));
         }
-        readerRepository.saveAll(readerList);
+        readerRepository.saveAll(readerList).forEach(reader -> eventPublisher.created(reader.getId(), reader));
     }
 
     /**
@@ -61,17 +92,26 @@ public class ReaderService {
      */
     public List<Issuance> issuanceListByIdReader(long id) {
         List<Issuance> list = null;
+        IssuanceInstanceSelector.Lease lease = selectIssuanceInstance();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             list = webClient.get()
-                    .uri(getIssuanceServiceIp() + "/issuance/reader/" + id)
+                    .uri(lease.url() + "/issuance/reader/" + id)
+                    .attribute(LibraryWebClientAutoConfiguration.TARGET_ATTRIBUTE, "issuance-service")
                     .retrieve()
-                    .bodyToFlux(Issuance.class)
-                    .collectList()
+                    .bodyToMono(ISSUANCE_LIST)
                     .block();
+            outcome = "success";
         } catch (WebClientResponseException e) {
+            outcome = e.getStatusCode().is4xxClientError() ? "not_found" : "server_error";
             throw new NoSuchElementException("Читателю с ID = " + id + " книги не выдавались");
         } catch (Exception e) {
             throw new RuntimeException("Соединение с сервером выдачи книг не установлено");
+        } finally {
+            lease.release(!"success".equals(outcome) && !"not_found".equals(outcome));
+            sample.stop(timer("library.remote.requests", "Обращения к удаленным сервисам", "reader-issuances",
+                    outcome));
         }
         return list;
     }
@@ -104,7 +144,36 @@ public class ReaderService {
     }
 
     /**
-     * Метод обрабатывает данные читателя, введенные пользователем, для записи
+     * Метод обрабатывает постраничное получение списка читателей
+     *
+     * @param after идентификатор последнего читателя предыдущей страницы, отсутствует для первой страницы
+     * @param size  размер страницы, при отсутствии используется размер по умолчанию
+     * @return если первая страница не пуста, то метод возвращает страницу читателей, иначе исключение
+     */
+    public CursorPage<Reader> getReaderPage(Long after, Integer size) {
+        int pageSize = pageProperties.resolveSize(size);
+        List<Reader> readers = readerRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0 : after, Limit.of(pageSize + 1)
+        );
+        if (after == null && readers.isEmpty()) {
+            throw new NoSuchElementException("Список читателей пуст");
+        }
+        return CursorPage.of(readers, pageSize, Reader::getId);
+    }
+
+    /**
+     * Метод обрабатывает пакетное получение читателей по списку идентификаторов
+     *
+     * @param ids идентификаторы читателей
+     * @return список найденных читателей, отсутствующие идентификаторы пропускаются
+     */
+    public List<Reader> getReadersByIds(Collection<Long> ids) {
+        return readerRepository.findAllById(ids);
+    }
+
+    /**
+     * Метод обрабатывает данные читателя, введенные пользователем, для записи.
+     * О сохранении читателя публикуется событие
      *
      * @param reader данные полученные от пользователя
      * @return если данные введенные корректно, то метод возвращает информацию о пользователе подлежащей для записи,
@@ -114,11 +183,14 @@ public class ReaderService {
         if (reader.getFirstName().isEmpty() && reader.getLastName().isEmpty()) {
             throw new RuntimeException("Имя читателя не задано");
         }
-        return readerRepository.save(reader);
+        Reader saved = readerRepository.save(reader);
+        eventPublisher.created(saved.getId(), saved);
+        return saved;
     }
 
     /**
-     * Метод проверяет информацию о читателе перед удалением
+     * Метод проверяет информацию о читателе перед удалением.
+     * Об удалении читателя публикуется событие
      *
      * @param id идентификатор читателя подлежащего удалению
      * @return информацию удаленного читателя
@@ -126,6 +198,7 @@ public class ReaderService {
     public Reader deleteReaderById(long id) {
         Reader reader = getReaderById(id);
         readerRepository.deleteById(id);
+        eventPublisher.deleted(id);
         if (Objects.isNull(reader)) {
             throw new NoSuchElementException("Читатель с ID = " + id + " не найдена");
         }
@@ -0,0 +1,27 @@
+-- Схема хранилища читателей для профиля persistent.
+-- Выполняется при каждом запуске, существующие объекты не изменяются, поэтому запуск не зависит от объема данных.
+-- Шаг последовательности совпадает с размером блока идентификаторов Hibernate по умолчанию
+CREATE SEQUENCE IF NOT EXISTS reader_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS reader (
+    id         BIGINT NOT NULL PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255)
+);
+
+-- Общие сущности LibraryModels входят в единицу хранения каждого сервиса и сверяются при запуске,
+-- в этом сервисе их таблицы остаются пустыми
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 100;
+CREATE TABLE IF NOT EXISTS book (
+    id    BIGINT NOT NULL PRIMARY KEY,
+    title VARCHAR(255)
+);
+
+CREATE SEQUENCE IF NOT EXISTS issuance_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS issuance (
+    id          BIGINT NOT NULL PRIMARY KEY,
+    book_id     BIGINT,
+    reader_id   BIGINT,
+    issuance_at TIMESTAMP(6),
+    returned_at TIMESTAMP(6)
+);
@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Сравнение сервисов библиотеки на потоках платформы и на виртуальных потоках нагрузочным тестом LibraryLoadTests.
+#
+# Перед запуском должны быть собраны jar сервисов: mvn install -DskipTests
+# Тест запускается дважды с одинаковой нагрузкой: без профиля и с профилем virtual у сервисов книг,
+# читателей и выдачи. Кэш выдачи выключен, чтобы каждый запрос блокировался на обращении к удаленным сервисам.
+# Флаг jdk.tracePinnedThreads выводит в журнал сервиса стек, если виртуальный поток закрепился
+# за потоком-носителем. Прогрев длиннее, чем у нагрузочного теста по умолчанию: в режиме virtual в первые
+# секунды нагрузки ответы сервиса книг задерживаются до 20 с, и при коротком прогреве они попадают в замер.
+set -euo pipefail
+
+RATE=${RATE:-30}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-60s}
+OUT=${OUT:-target/thread-modes}
+ARGS=${ARGS:---application.cache.enabled=false}
+JVM=${JVM:-}
+
+run_mode() {
+    local mode=$1 args=$2
+    mvn -B -q -pl LibraryLoadTests compile exec:java -Dloadtest.args="rate=$RATE duration=$DURATION warmup=$WARMUP \
+output=$OUT/$mode \"jvm=-Djdk.tracePinnedThreads=short $JVM\" \"args=$args\""
+}
+
+run_mode platform "$ARGS"
+run_mode virtual "$ARGS --spring.profiles.active=virtual"
+
+for mode in platform virtual; do
+    echo "== $mode"
+    cat "$OUT/$mode/report.txt"
+    pinned=$(cat "$OUT/$mode"/*.log | grep -c "onPinned\|<== monitors" || true)
+    echo "Закреплений виртуальных потоков в журналах сервисов: $pinned"
+done
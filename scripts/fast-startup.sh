@@ -0,0 +1,95 @@
+#!/usr/bin/env bash
+# Сборка сервисов для быстрого запуска и сравнение времени запуска с обычной сборкой.
+#
+# Для каждого сервиса:
+#   1. обычная сборка и замер запуска исполняемого jar;
+#   2. сборка с профилем Maven fast-startup (обработка Spring AOT);
+#   3. распаковка jar в набор jar-файлов - архив CDS не хранит классы, загруженные из вложенных jar;
+#   4. учебный запуск до создания контекста (spring.context.exit=onRefresh) с записью архива классов CDS;
+#   5. замер запуска с AOT и архивом CDS.
+# Время запуска берется из строки отчета StartupReport "готов через ... мс после старта JVM".
+# Модуль LibraryModels должен быть установлен: mvn -f "LibraryModels/pom.xml" install
+# На время замеров запускается сервер обнаружения, и все запуски выполняются с одинаковыми настройками:
+# обработка AOT фиксирует условия автоконфигурации при сборке, поэтому клиент Eureka не выключается.
+set -euo pipefail
+
+OUT=${OUT:-target/fast-startup}
+SERVICES=${SERVICES:-"BookMicroService ReaderMicroService IssuanceMicroService"}
+EUREKA_PORT=${EUREKA_PORT:-8761}
+COMMON_ARGS=(--eureka.client.serviceUrl.defaultZone="http://localhost:$EUREKA_PORT/eureka"
+             --application.catalog.enabled=false)
+
+mkdir -p "$OUT"
+
+mvn -q -f "DiscoveryMicroService/pom.xml" package -DskipTests
+java -jar DiscoveryMicroService/target/DiscoveryMicroService-1.0.0.jar --server.port="$EUREKA_PORT" \
+    > "$OUT/discovery.log" 2>&1 &
+DISCOVERY_PID=$!
+trap 'kill "$DISCOVERY_PID" 2> /dev/null || true' EXIT
+until curl -sf "http://localhost:$EUREKA_PORT/eureka/apps" > /dev/null; do
+    if ! kill -0 "$DISCOVERY_PID" 2> /dev/null; then
+        echo "Сервер обнаружения не запустился, см. $OUT/discovery.log" >&2
+        exit 1
+    fi
+    sleep 0.5
+done
+
+executable_jar() {
+    local module=$1
+    ls "$module"/target/"$module"-1.0.0-exec.jar 2>/dev/null || ls "$module"/target/"$module"-1.0.0.jar
+}
+
+# Запуск до строки отчета о времени запуска, вывод времени в мс
+measure() {
+    local log=$1
+    shift
+    "$@" > "$log" 2>&1 &
+    local pid=$!
+    until grep -q "готов через" "$log"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Сервис не запустился, см. $log" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+    kill "$pid"
+    wait "$pid" || true
+    grep -o "готов через [0-9]*" "$log" | grep -o "[0-9]*$"
+}
+
+declare -A BASELINE OPTIMIZED
+
+for module in $SERVICES; do
+    dir="$OUT/$module"
+    rm -rf "$dir"
+    mkdir -p "$dir"
+
+    mvn -q -f "$module/pom.xml" package -DskipTests
+    BASELINE[$module]=$(measure "$dir/baseline.log" java -jar "$(executable_jar "$module")" "${COMMON_ARGS[@]}")
+
+    mvn -q -f "$module/pom.xml" -P fast-startup package -DskipTests
+    java -Djarmode=layertools -jar "$(executable_jar "$module")" extract --destination "$dir/extracted"
+    jar --create --file "$dir/application.jar" -C "$dir/extracted/application/BOOT-INF/classes" .
+    # Порядок библиотек как в исполняемом jar (classpath.idx): в сборку попадают две версии snakeyaml
+    classpath="$dir/application.jar"
+    for lib in $(sed 's/^- "\(.*\)"$/\1/' "$dir/extracted/application/BOOT-INF/classpath.idx"); do
+        classpath="$classpath:$(ls "$dir"/extracted/*/"$lib")"
+    done
+
+    java -XX:ArchiveClassesAtExit="$dir/application.jsa" -Dspring.context.exit=onRefresh -Dspring.aot.enabled=true \
+        -cp "$classpath" "ru.fsv67.$module" --spring.profiles.active=fast-startup --application.seed.mode=disabled \
+        "${COMMON_ARGS[@]}" > "$dir/training.log" 2>&1
+
+    echo "java -XX:SharedArchiveFile=$dir/application.jsa -Dspring.aot.enabled=true -cp \"$classpath\" ru.fsv67.$module --spring.profiles.active=fast-startup" \
+        > "$dir/run.sh"
+    OPTIMIZED[$module]=$(measure "$dir/optimized.log" java -XX:SharedArchiveFile="$dir/application.jsa" \
+        -Dspring.aot.enabled=true -cp "$classpath" "ru.fsv67.$module" --spring.profiles.active=fast-startup \
+        "${COMMON_ARGS[@]}")
+done
+
+{
+    printf "%-22s %12s %12s\n" "Сервис" "обычный, мс" "AOT+CDS, мс"
+    for module in $SERVICES; do
+        printf "%-22s %12s %12s\n" "$module" "${BASELINE[$module]}" "${OPTIMIZED[$module]}"
+    done
+} | tee "$OUT/report.txt"
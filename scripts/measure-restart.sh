@@ -0,0 +1,76 @@
+#!/usr/bin/env bash
+# Замер перезапуска сервиса книг с профилем persistent при разном объеме каталога.
+#
+# Для каждого объема:
+#   1. запуск с пустым хранилищем (добавляются тестовые данные) и загрузка каталога через POST /book/import;
+#   2. остановка и повторный запуск с тем же хранилищем;
+#   3. время готовности из строки отчета StartupReport "готов через ... мс после старта JVM"
+#      и время построения индекса поиска в фоне после запуска.
+# Время готовности не должно зависеть от объема каталога, время построения индекса растет вместе с ним.
+# Сервис должен быть собран: mvn -f "BookMicroService/pom.xml" package
+# Сервис не регистрируется в Eureka и не читает реестр, клиент Eureka при этом создается как обычно.
+set -euo pipefail
+
+JAR=${JAR:-BookMicroService/target/BookMicroService-1.0.0-exec.jar}
+PORT=${PORT:-8380}
+SIZES=${SIZES:-"0 100000 1000000"}
+OUT=${OUT:-target/restart}
+ARGS=(--server.port="$PORT" --spring.profiles.active=persistent
+      --eureka.client.register-with-eureka=false --eureka.client.fetch-registry=false)
+
+mkdir -p "$OUT"
+
+# Запуск до строки журнала, вывод pid запущенного сервиса
+start() {
+    local log=$1 line=$2
+    shift 2
+    java -jar "$JAR" "${ARGS[@]}" "$@" > "$log" 2>&1 &
+    local pid=$!
+    until grep -q "$line" "$log" 2> /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "Сервис не запустился, см. $log" >&2
+            return 1
+        fi
+        sleep 0.2
+    done
+    echo "$pid"
+}
+
+# Сервис запущен из подстановки команды и не является дочерним процессом, поэтому wait не подходит
+stop() {
+    kill "$1"
+    while kill -0 "$1" 2> /dev/null; do
+        sleep 0.2
+    done
+}
+
+declare -A FIRST RESTART INDEX
+
+for size in $SIZES; do
+    dir="$OUT/$size"
+    rm -rf "$dir"
+    mkdir -p "$dir"
+    data="$(cd "$dir" && pwd)/data" # H2 не принимает путь, неявно относительный к рабочему каталогу
+
+    pid=$(start "$dir/first.log" "Индекс поиска книг построен" --application.storage.dir="$data")
+    FIRST[$size]=$(grep -o "готов через [0-9]*" "$dir/first.log" | grep -o "[0-9]*$")
+    if [ "$size" -gt 0 ]; then
+        seq 1 "$size" | sed 's/^/Книга /' > "$dir/catalog.csv"
+        curl -sf -X POST -H "Content-Type: text/csv" --data-binary @"$dir/catalog.csv" \
+            "http://localhost:$PORT/book/import" > "$dir/import.json"
+        rm "$dir/catalog.csv"
+    fi
+    stop "$pid"
+
+    pid=$(start "$dir/restart.log" "Индекс поиска книг построен" --application.storage.dir="$data")
+    stop "$pid"
+    RESTART[$size]=$(grep -o "готов через [0-9]*" "$dir/restart.log" | grep -o "[0-9]*$")
+    INDEX[$size]=$(grep -o "Индекс поиска книг построен.*время [0-9]*" "$dir/restart.log" | grep -o "[0-9]*$")
+done
+
+{
+    printf "%12s %16s %16s %22s\n" "Загружено" "запуск, мс" "перезапуск, мс" "индекс поиска, мс"
+    for size in $SIZES; do
+        printf "%12s %16s %16s %22s\n" "$size" "${FIRST[$size]}" "${RESTART[$size]}" "${INDEX[$size]}"
+    done
+} | tee "$OUT/report.txt"